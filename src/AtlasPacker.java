@@ -0,0 +1,126 @@
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * AtlasPacker is the build step that packs the card faces and the face down
+ * hand images into one atlas image, so the game reads and decodes a single PNG
+ * instead of over 80 of them. It writes atlas.png and atlas.txt into the card
+ * image folder. Every line of atlas.txt is the name of one image followed by
+ * its x, y, width and height in the atlas. Run it again whenever an image in
+ * the folder changes:
+ *
+ * java AtlasPacker src/PNG-cards-1.3
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class AtlasPacker {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The name of the packed image, read by CardImages.
+	 */
+	static final String ATLAS_IMAGE = "atlas.png";
+
+	/**
+	 * The name of the coordinate index, read by CardImages.
+	 */
+	static final String ATLAS_INDEX = "atlas.txt";
+
+	/**
+	 * The widest the atlas is allowed to be, images are packed into rows no
+	 * wider than this.
+	 */
+	private static final int MAX_WIDTH = 2048;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Only used through main, no AtlasPacker objects are made.
+	 */
+	private AtlasPacker() {
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Packs the card images of a folder into atlas.png and atlas.txt in the
+	 * same folder.
+	 *
+	 * @param args
+	 *            The folder of card images, src/PNG-cards-1.3 if none is given
+	 * @throws IOException
+	 *             if an image cannot be read or the atlas cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		File folder = new File(args.length > 0 ? args[0] : "src/PNG-cards-1.3");
+
+		// Every face and every face down hand, not the logo or an old atlas
+		File[] files = folder.listFiles((dir, name) -> name.endsWith(".png") && !name.equals(ATLAS_IMAGE)
+				&& !name.startsWith("Logo"));
+		if (files == null || files.length == 0)
+			throw new IOException("No card images in " + folder);
+		Arrays.sort(files);
+
+		ArrayList<String> names = new ArrayList<>();
+		ArrayList<BufferedImage> images = new ArrayList<>();
+		for (File f : files) {
+			names.add(f.getName().substring(0, f.getName().length() - 4));
+			images.add(ImageIO.read(f));
+		}
+
+		// Place the tallest images first, left to right in rows
+		Integer[] order = new Integer[images.size()];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, (a, b) -> {
+			int byHeight = images.get(b).getHeight() - images.get(a).getHeight();
+			return byHeight != 0 ? byHeight : images.get(b).getWidth() - images.get(a).getWidth();
+		});
+
+		int[][] place = new int[images.size()][];
+		int x = 0, y = 0, rowHeight = 0, width = 0;
+		for (int i : order) {
+			BufferedImage img = images.get(i);
+			if (x + img.getWidth() > MAX_WIDTH) {
+				x = 0;
+				y += rowHeight;
+				rowHeight = 0;
+			}
+			place[i] = new int[] { x, y };
+			x += img.getWidth();
+			rowHeight = Math.max(rowHeight, img.getHeight());
+			width = Math.max(width, x);
+		}
+
+		BufferedImage atlas = new BufferedImage(width, y + rowHeight, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = atlas.createGraphics();
+		try (PrintWriter index = new PrintWriter(new File(folder, ATLAS_INDEX), "UTF-8")) {
+			for (int i = 0; i < images.size(); i++) {
+				BufferedImage img = images.get(i);
+				g.drawImage(img, place[i][0], place[i][1], null);
+				index.println(names.get(i) + " " + place[i][0] + " " + place[i][1] + " " + img.getWidth() + " "
+						+ img.getHeight());
+			}
+		}
+		g.dispose();
+		ImageIO.write(atlas, "png", new File(folder, ATLAS_IMAGE));
+
+		System.out.println("Packed " + images.size() + " images into a " + atlas.getWidth() + "x"
+				+ atlas.getHeight() + " atlas");
+	}
+}
@@ -0,0 +1,338 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark times the parts of the game that a simulation runs millions of
+ * times: Bot.playCard with 0 to 3 cards in the middle pile,
+ * Driver.determineWinner, TrickResolver.winner, Hand.contains, add and
+ * remove, Memory.contains, the Deck constructor, Deck.deal and
+ * Card.compareTo2. Every benchmark runs over a table of positions made from
+ * seeded games, so two runs with the same seed time the same work:
+ *
+ * java Benchmark [seed] [benchmark name]
+ *
+ * Each benchmark is warmed up first so the JIT has compiled it, then measured
+ * over several iterations. For each one it prints the average time of one
+ * operation and the bytes it allocated per operation, which is where garbage
+ * collection pauses in a simulation come from. Allocation is read from the
+ * JVM's per thread allocation counter, and is shown as n/a on a JVM that does
+ * not have one.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class Benchmark {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The number of positions in each table, a power of two so the next
+	 * position is found with a mask.
+	 */
+	private static final int POSITIONS = 1024;
+
+	/**
+	 * Iterations run before measuring and iterations measured.
+	 */
+	private static final int WARMUP = 5, MEASURED = 10;
+
+	/**
+	 * The shortest time an iteration runs for, in nanoseconds.
+	 */
+	private static final long ITERATION_NANOS = 200_000_000L;
+
+	/**
+	 * The JVM's thread bean, looked up once since the lookup itself
+	 * allocates.
+	 */
+	private static final java.lang.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	/**
+	 * Every result is added here, so the JIT cannot drop the work of a
+	 * benchmark as unused.
+	 */
+	private static volatile long sink;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Only used through main, no Benchmark objects are made.
+	 */
+	private Benchmark() {
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Runs every benchmark, or only those whose name contains a filter, and
+	 * prints a table of the results.
+	 *
+	 * @param args
+	 *            The seed of the positions (1 if none is given) and an
+	 *            optional filter on the benchmark names.
+	 */
+	public static void main(String[] args) {
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+		String filter = args.length > 1 ? args[1] : "";
+
+		Random random = new Random(seed);
+		BotPosition[][] botPositions = botPositions(random);
+		ArrayList<Card>[] tricks = tricks(botPositions[3]);
+		Driver[] drivers = new Driver[POSITIONS];
+		Hand[] hands = new Hand[POSITIONS];
+		Memory[] memories = new Memory[POSITIONS];
+		Card[] cards = new Card[POSITIONS];
+		for (int i = 0; i < POSITIONS; i++) {
+			hands[i] = botPositions[i % 4][i].bot.getHand();
+			memories[i] = botPositions[i % 4][i].bot.getContext().getMemory();
+			cards[i] = Card.of(random.nextInt(52));
+			drivers[i] = new Driver(new GameContext(new String[] { "Bot", "Bot", "Bot", "Bot" }, seed + i));
+		}
+
+		System.out.printf("%-26s %12s %12s%n", "Benchmark (seed " + seed + ")", "ns/op", "B/op");
+		for (int size = 0; size < 4; size++) {
+			BotPosition[] positions = botPositions[size];
+			run("Bot.playCard pile " + size, filter, i -> {
+				BotPosition p = positions[i];
+				Card c = p.bot.playCard(p.pile);
+				p.bot.getHand().add(c);
+				return c.getOrdinal();
+			});
+		}
+		// determineWinner adds the round to the driver's memory, which is only
+		// done once for the same cards, so every pass starts from empty memories
+		run("Driver.determineWinner", filter, i -> drivers[i].determineWinner(tricks[i]).getOrdinal(), () -> {
+			for (Driver d : drivers)
+				d.getContext().newHand();
+		});
+		run("TrickResolver.winner", filter, i -> {
+			ArrayList<Card> t = tricks[i];
+			return TrickResolver.winner(t.get(0).getOrdinal(), t.get(1).getOrdinal(), t.get(2).getOrdinal(),
+					t.get(3).getOrdinal(), i & 3);
+		});
+		run("Hand.contains", filter, i -> hands[i].contains(cards[i]) ? 1 : 0);
+		run("Hand.add/remove", filter, i -> {
+			Hand h = hands[i];
+			Card c = h.remove(i % h.size());
+			h.add(c);
+			return c.getOrdinal();
+		});
+		run("Memory.contains", filter, i -> memories[i].contains(cards[i]) ? 1 : 0);
+		SplittableRandom deckRandom = new SplittableRandom(seed);
+		Deck deck = new Deck(deckRandom);
+		long[] dealt = new long[4];
+		run("new Deck", filter, i -> new Deck(deckRandom).size());
+		run("Deck.deal", filter, i -> {
+			deck.deal(dealt);
+			return (int) dealt[i & 3];
+		});
+		run("Card.compareTo2", filter, i -> Card.compareTo2(cards[i], cards[(i + 1) & (POSITIONS - 1)]));
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Warms up and measures one benchmark, then prints its time and
+	 * allocation per operation.
+	 *
+	 * @param name
+	 *            The name of the benchmark.
+	 * @param filter
+	 *            Only benchmarks whose name contains this are run.
+	 * @param op
+	 *            The operation, given the index of the position to run on.
+	 */
+	private static void run(String name, String filter, Op op) {
+		run(name, filter, op, null);
+	}
+
+	/**
+	 * Warms up and measures one benchmark that changes its positions, then
+	 * prints its time and allocation per operation.
+	 *
+	 * @param name
+	 *            The name of the benchmark.
+	 * @param filter
+	 *            Only benchmarks whose name contains this are run.
+	 * @param op
+	 *            The operation, given the index of the position to run on.
+	 * @param reset
+	 *            Puts the positions back before every pass over them, not
+	 *            timed, or null if the operation does not change them
+	 */
+	private static void run(String name, String filter, Op op, Runnable reset) {
+		if (!name.contains(filter))
+			return;
+		for (int i = 0; i < WARMUP; i++)
+			iteration(op, reset);
+		long ops = 0, nanos = 0, bytes = 0;
+		for (int i = 0; i < MEASURED; i++) {
+			long[] r = iteration(op, reset);
+			ops += r[0];
+			nanos += r[1];
+			bytes += r[2];
+		}
+		String perOp = bytes < 0 ? "n/a" : String.format("%.1f", bytes / (double) ops);
+		System.out.printf("%-26s %12.1f %12s%n", name, nanos / (double) ops, perOp);
+	}
+
+	/**
+	 * Runs an operation over the positions until ITERATION_NANOS have passed,
+	 * resetting the positions before every pass without timing it.
+	 *
+	 * @param op
+	 *            The operation to run.
+	 * @param reset
+	 *            Puts the positions back before every pass, or null
+	 * @return the operations run, the nanoseconds taken and the bytes
+	 *         allocated, -1 if they could not be counted
+	 */
+	private static long[] iteration(Op op, Runnable reset) {
+		long acc = 0, ops = 0, nanos = 0, bytes = 0;
+		do {
+			if (reset != null)
+				reset.run();
+			long bytesBefore = allocatedBytes();
+			long start = System.nanoTime();
+			for (int i = 0; i < POSITIONS; i++)
+				acc += op.run(i);
+			nanos += System.nanoTime() - start;
+			long bytesAfter = allocatedBytes();
+			bytes = bytesBefore < 0 || bytes < 0 ? -1 : bytes + bytesAfter - bytesBefore;
+			ops += POSITIONS;
+		} while (nanos < ITERATION_NANOS);
+		sink += acc;
+		return new long[] { ops, nanos, bytes };
+	}
+
+	/**
+	 * Returns the bytes allocated by this thread so far.
+	 *
+	 * @return the bytes allocated, or -1 if the JVM does not count them
+	 */
+	private static long allocatedBytes() {
+		if (!(THREADS instanceof com.sun.management.ThreadMXBean))
+			return -1;
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+		if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled())
+			return -1;
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Plays seeded games of bots and copies the position of a bot about to
+	 * play, with each number of cards already in the middle pile, until there
+	 * are POSITIONS of each. Every copy has its own hand and memory so running
+	 * one position does not change another.
+	 *
+	 * @param random
+	 *            The random numbers the games are seeded from.
+	 * @return the positions, indexed by the number of cards in the pile
+	 */
+	private static BotPosition[][] botPositions(Random random) {
+		BotPosition[][] positions = new BotPosition[4][POSITIONS];
+		int[] found = new int[4];
+		String[] bots = { "Bot", "Bot", "Bot", "Bot" };
+		while (found[0] < POSITIONS || found[1] < POSITIONS || found[2] < POSITIONS || found[3] < POSITIONS) {
+			GameContext context = new GameContext(bots, random.nextLong());
+			SpadesEngine engine = new SpadesEngine(new Driver(context));
+			engine.deal();
+			for (int i = 0; i < 4; i++)
+				engine.bid(i, engine.getPlayer(i).getHand().getNumSpades());
+			while (engine.getPhase() == SpadesEngine.Phase.PLAY) {
+				while (!engine.isTrickComplete()) {
+					int size = engine.getTrick().size();
+					if (found[size] < POSITIONS)
+						positions[size][found[size]++] = new BotPosition(engine, context);
+					engine.playBot();
+				}
+				engine.nextTrick();
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * Makes complete rounds out of positions with three cards in the pile,
+	 * finished by the card the bot plays.
+	 *
+	 * @param positions
+	 *            Positions with three cards in the pile.
+	 * @return the four cards of each round
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static ArrayList<Card>[] tricks(BotPosition[] positions) {
+		ArrayList<Card>[] tricks = new ArrayList[POSITIONS];
+		for (int i = 0; i < POSITIONS; i++) {
+			BotPosition p = positions[i];
+			tricks[i] = new ArrayList<>(p.pile);
+			Card c = p.bot.playCard(p.pile);
+			p.bot.getHand().add(c);
+			tricks[i].add(c);
+		}
+		return tricks;
+	}
+
+	/*
+	 * INNER CLASSES
+	 */
+
+	/**
+	 * One benchmark operation.
+	 */
+	private interface Op {
+		/**
+		 * @param i
+		 *            The index of the position to run on, 0 to POSITIONS - 1
+		 * @return any value of the result, added to the sink
+		 */
+		int run(int i);
+	}
+
+	/**
+	 * A copy of a bot about to play and the cards already in the pile.
+	 */
+	private static class BotPosition {
+
+		private final Bot bot; // the bot, with a copy of its hand and memory.
+		private final ArrayList<Card> pile; // the cards already played.
+
+		/**
+		 * Copies the position of the player whose turn it is.
+		 *
+		 * @param engine
+		 *            The engine of the game.
+		 * @param context
+		 *            The context of the game.
+		 */
+		BotPosition(SpadesEngine engine, GameContext context) {
+			GameContext copy = new GameContext(new String[] { "Bot", "Bot", "Bot", "Bot" });
+			for (int o = 0; o < 52; o++) {
+				if (context.getMemory().contains(Card.of(o)))
+					copy.getMemory().add(Card.of(o), context.getMemory().playedBy(Card.of(o)));
+			}
+			bot = new Bot(copy);
+			Hand hand = new Hand();
+			Hand from = engine.getPlayer(engine.getTurn()).getHand();
+			for (int i = 0; i < from.size(); i++)
+				hand.add(from.getCardAtPosition(i));
+			bot.setHand(hand);
+			pile = new ArrayList<>(engine.getTrick());
+		}
+	}
+}
@@ -0,0 +1,302 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * BidTable looks up the bid for a hand in a file made ahead of time, so
+ * bidding at the table takes no simulation at all. There are far too many
+ * kinds of hands to give each its own entry (see HandIndexer), so hands are
+ * grouped by the features that decide how many tricks they take: the number
+ * of spades, which of the ace, king and queen of spades they hold, the aces
+ * and kings of the side suits and the number of side suits that are void or
+ * have a single card. Every group has one entry with the average number of
+ * tricks its hands took and the bid with the best average score, found the
+ * same way as Bidder does but for the hand on its own, since a group does not
+ * know the partner's cards.
+ *
+ * The file is made by running this class:
+ *
+ * java BidTable [deals] [seed] [file] [threads]
+ *
+ * which deals random hands, plays them out with bots and counts the tricks
+ * each hand took in its group. The bids.dat next to the sources was made with
+ * the defaults. The game maps the file into memory when it is
+ * opened, which takes microseconds since the file is only a few kilobytes.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class BidTable {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The file the game looks for in the folder it is run from.
+	 */
+	public static final String DEFAULT_FILE = "bids.dat";
+
+	/**
+	 * The first four bytes of a table file, "SBID", and the version of the
+	 * file layout.
+	 */
+	private static final int MAGIC = 0x53424944, VERSION = 1;
+
+	/**
+	 * Bytes before the first entry: magic, version and number of groups.
+	 */
+	private static final int HEADER = 12;
+
+	/**
+	 * The number of values of each feature: spades (7 or more counted as 7),
+	 * top spades held (one bit each for ace, king and queen), side aces, side
+	 * kings, void side suits (2 or more counted as 2) and singleton side
+	 * suits.
+	 */
+	private static final int SPADES = 8, TOP_SPADES = 8, ACES = 4, KINGS = 4, VOIDS = 3, SINGLETONS = 4;
+
+	/**
+	 * The number of groups of hands.
+	 */
+	static final int GROUPS = SPADES * TOP_SPADES * ACES * KINGS * VOIDS * SINGLETONS;
+
+	/**
+	 * The bid stored for a group too few hands of the generator fell in for
+	 * their average to mean much, and the fewest hands that are enough.
+	 */
+	private static final int NO_BID = 0xFF;
+	private static final int MIN_HANDS = 20;
+
+	/**
+	 * The seats of the bots that play the hands out.
+	 */
+	private static final String[] BOTS = { "Bot", "Bot", "Bot", "Bot" };
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	private final ByteBuffer entries; // two bytes per group: bid, tricks * 10.
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Creates a table over the mapped bytes of a file.
+	 *
+	 * @param buffer
+	 *            The bytes of the file.
+	 * @throws IOException
+	 *             if the bytes are not a table of this version
+	 */
+	private BidTable(ByteBuffer buffer) throws IOException {
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		if (buffer.capacity() != HEADER + 2 * GROUPS || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+				|| buffer.getInt(8) != GROUPS)
+			throw new IOException("Not a bid table of version " + VERSION);
+		entries = buffer;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Maps a table file into memory.
+	 *
+	 * @param file
+	 *            The file made by main.
+	 * @return the table
+	 * @throws IOException
+	 *             if the file can not be read or is not a bid table
+	 */
+	public static BidTable load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new BidTable(buffer);
+		}
+	}
+
+	/**
+	 * Maps DEFAULT_FILE into memory if it is there.
+	 *
+	 * @return the table, or null if there is no readable table file
+	 */
+	public static BidTable loadDefault() {
+		Path file = Paths.get(DEFAULT_FILE);
+		if (!Files.isReadable(file))
+			return null;
+		try {
+			return load(file);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the bid for a hand.
+	 *
+	 * @param hand
+	 *            The 13 cards of the hand.
+	 * @return the bid of the hand's group, or the number of spades if too few
+	 *         hands of the group were played when the table was made
+	 */
+	public int bid(Hand hand) {
+		int bid = entries.get(HEADER + 2 * group(hand.getBits())) & 0xFF;
+		return bid == NO_BID ? hand.getNumSpades() : bid;
+	}
+
+	/**
+	 * Returns the average number of tricks the hands of a hand's group took.
+	 *
+	 * @param hand
+	 *            The 13 cards of the hand.
+	 * @return the average tricks, or -1 if too few hands of the group were
+	 *         played
+	 */
+	public double getExpectedTricks(Hand hand) {
+		int at = HEADER + 2 * group(hand.getBits());
+		if ((entries.get(at) & 0xFF) == NO_BID)
+			return -1;
+		return (entries.get(at + 1) & 0xFF) / 10.0;
+	}
+
+	/**
+	 * Deals hands, plays them out and writes the table file.
+	 *
+	 * @param args
+	 *            The number of deals (1000000 if none is given), the seed
+	 *            (1 if none is given), the file (DEFAULT_FILE if none is
+	 *            given) and the number of threads (every core if none is
+	 *            given).
+	 * @throws IOException
+	 *             if the file can not be written
+	 */
+	public static void main(String[] args) throws IOException {
+		long deals = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+		Path file = Paths.get(args.length > 2 ? args[2] : DEFAULT_FILE);
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		long start = System.nanoTime();
+		long[][] tricks = generate(deals, seed, threads);
+		byte[] table = new byte[HEADER + 2 * GROUPS];
+		ByteBuffer out = ByteBuffer.wrap(table).order(ByteOrder.BIG_ENDIAN);
+		out.putInt(MAGIC).putInt(VERSION).putInt(GROUPS);
+		int empty = 0;
+		for (int g = 0; g < GROUPS; g++) {
+			long n = 0, sum = 0;
+			for (int t = 0; t <= 13; t++) {
+				n += tricks[g][t];
+				sum += t * tricks[g][t];
+			}
+			if (n < MIN_HANDS) {
+				empty++;
+				out.put((byte) NO_BID).put((byte) 0);
+			} else {
+				out.put((byte) Bidder.bestBid(tricks[g])).put((byte) Math.round(sum * 10.0 / n));
+			}
+		}
+		Files.write(file, table);
+		System.out.printf("%d deals, %d groups (%d without enough hands) written to %s in %.1f s%n", deals, GROUPS, empty, file,
+				(System.nanoTime() - start) / 1e9);
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Returns the group of a hand.
+	 *
+	 * @param hand
+	 *            The mask of a hand of 13 cards, see CardSet
+	 * @return the group, 0 to GROUPS - 1
+	 */
+	static int group(long hand) {
+		int spadeShift = Card.suitIndex(Suit.SPADE) * CardSet.SUIT_SIZE;
+		int spades = (int) (hand >>> spadeShift & CardSet.SUIT_BITS);
+		int length = Math.min(Integer.bitCount(spades), SPADES - 1);
+		int top = spades >>> (CardSet.SUIT_SIZE - 3);
+		int aces = 0, kings = 0, voids = 0, singletons = 0;
+		for (Suit suit : Suit.values()) {
+			if (suit == Suit.SPADE)
+				continue;
+			int cards = (int) (hand >>> (Card.suitIndex(suit) * CardSet.SUIT_SIZE) & CardSet.SUIT_BITS);
+			aces += cards >>> (CardSet.SUIT_SIZE - 1) & 1;
+			kings += cards >>> (CardSet.SUIT_SIZE - 2) & 1;
+			int n = Integer.bitCount(cards);
+			if (n == 0)
+				voids++;
+			else if (n == 1)
+				singletons++;
+		}
+		voids = Math.min(voids, VOIDS - 1);
+		return ((((length * TOP_SPADES + top) * ACES + aces) * KINGS + kings) * VOIDS + voids) * SINGLETONS
+				+ singletons;
+	}
+
+	/**
+	 * Plays deals out on a number of threads and counts, for every group, how
+	 * many of its hands took each number of tricks.
+	 */
+	private static long[][] generate(long deals, long seed, int threads) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		SplittableRandom random = new SplittableRandom(seed);
+		ArrayList<ForkJoinTask<long[][]>> tasks = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			long share = deals / threads + (t < deals % threads ? 1 : 0);
+			SplittableRandom threadRandom = random.split();
+			tasks.add(pool.submit(() -> playDeals(share, threadRandom)));
+		}
+		long[][] tricks = new long[GROUPS][14];
+		for (ForkJoinTask<long[][]> task : tasks) {
+			long[][] part = task.join();
+			for (int g = 0; g < GROUPS; g++) {
+				for (int t = 0; t <= 13; t++)
+					tricks[g][t] += part[g][t];
+			}
+		}
+		pool.shutdown();
+		return tricks;
+	}
+
+	/**
+	 * Plays deals out on one thread. Every deal gives four hands, each counted
+	 * in its own group.
+	 */
+	private static long[][] playDeals(long deals, SplittableRandom random) {
+		long[][] tricks = new long[GROUPS][14];
+		GameContext context = new GameContext(BOTS, random);
+		Deck deck = new Deck(random);
+		Bot[] bots = new Bot[4];
+		for (int s = 0; s < 4; s++)
+			bots[s] = new Bot(context);
+		long[] hands = new long[4];
+		int[] taken = new int[4];
+		ArrayList<Card> pile = new ArrayList<>(4);
+		for (long d = 0; d < deals; d++) {
+			deck.deal(hands);
+			for (int s = 0; s < 4; s++)
+				bots[s].setHand(new Hand(hands[s]));
+			context.newHand();
+			Bidder.playOut(bots, context.getMemory(), pile, random.nextInt(4), taken);
+			for (int s = 0; s < 4; s++)
+				tricks[group(hands[s])][taken[s]]++;
+		}
+		return tricks;
+	}
+}
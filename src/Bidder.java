@@ -0,0 +1,327 @@
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Bidder chooses how many tricks to bid for a hand by playing it out many
+ * times. Each time the other 39 cards are dealt at random to the other three
+ * seats and the hand is played by bots from a random leader, counting the
+ * tricks the hand and its partner take. This gives the chance of every number
+ * of tricks, which counts side suit aces, short suits that can trump and long
+ * spades that are weak, unlike bidding the number of spades.
+ *
+ * A team makes its bid when the two partners together take as many tricks as
+ * they bid together, so the partner's overtricks cover a trick the hand
+ * falls short. The bid chosen is the one with the best average score for the
+ * team, taking the partner to bid the tricks it took on average: 10 points a
+ * trick bid when the bid is made, 10 points a trick bid lost when it is not,
+ * and each trick over the bid scoring 1 point but bringing the team closer to
+ * the 100 points lost for 10 sand bags. The hands are played on several
+ * threads until a time limit for the bid runs out.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class Bidder {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The points a sand bag costs in the long run, 100 points for every 10.
+	 */
+	private static final int BAG_COST = 10;
+
+	/**
+	 * The most hands played out for one bid, enough for the average to settle.
+	 */
+	private static final int MAX_SAMPLES = 4000;
+
+	/**
+	 * The seats of the bots that play the hands out.
+	 */
+	private static final String[] BOTS = { "Bot", "Bot", "Bot", "Bot" };
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	private final long budgetNanos; // time allowed for one bid.
+	private final int threads; // threads playing hands out at the same time.
+	private final long[] tricks = new long[14]; // hands of the last bid taking each number of tricks.
+	private final long[] teamTricks = new long[14]; // hands of the last bid whose team took each number of tricks.
+	private long partnerTricks; // tricks the partner took in all hands of the last bid.
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Creates a bidder that plays hands out on every core for a time per bid.
+	 *
+	 * @param budgetMillis
+	 *            The milliseconds a bid may take.
+	 */
+	public Bidder(long budgetMillis) {
+		this(budgetMillis, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a bidder that plays hands out on a number of threads for a time
+	 * per bid.
+	 *
+	 * @param budgetMillis
+	 *            The milliseconds a bid may take.
+	 * @param threads
+	 *            The number of threads, at least 1
+	 */
+	public Bidder(long budgetMillis, int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("A bidder needs at least one thread");
+		this.budgetNanos = budgetMillis * 1_000_000L;
+		this.threads = threads;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Chooses the bid with the best average score for a hand.
+	 *
+	 * @param hand
+	 *            The 13 cards of the hand.
+	 * @param random
+	 *            The random numbers of the deals, such as the game's.
+	 * @return the number of tricks to bid, 0-13
+	 */
+	public int bid(Hand hand, SplittableRandom random) {
+		long deadline = System.nanoTime() + budgetNanos;
+		ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[threads - 1];
+		Sampler[] samplers = new Sampler[threads];
+		for (int t = 0; t < threads; t++)
+			samplers[t] = new Sampler(hand.getBits(), (MAX_SAMPLES + threads - 1) / threads, deadline,
+					random.split());
+		for (int t = 1; t < threads; t++)
+			helpers[t - 1] = ForkJoinPool.commonPool().submit(samplers[t]);
+		samplers[0].run();
+		for (int i = 0; i < tricks.length; i++) {
+			tricks[i] = 0;
+			teamTricks[i] = 0;
+		}
+		partnerTricks = 0;
+		for (int t = 0; t < threads; t++) {
+			if (t > 0)
+				helpers[t - 1].join();
+			for (int i = 0; i < tricks.length; i++) {
+				tricks[i] += samplers[t].tricks[i];
+				teamTricks[i] += samplers[t].teamTricks[i];
+			}
+			partnerTricks += samplers[t].partnerTricks;
+		}
+		if (getSamples() == 0)
+			return hand.getNumSpades();
+
+		int best = 0;
+		for (int b = 1; b <= 13; b++) {
+			if (expectedScore(b) > expectedScore(best))
+				best = b;
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the number of hands played out for the last bid.
+	 *
+	 * @return the number of hands
+	 */
+	public long getSamples() {
+		long n = 0;
+		for (long t : tricks)
+			n += t;
+		return n;
+	}
+
+	/**
+	 * Returns the share of the hands played out for the last bid that took a
+	 * number of tricks.
+	 *
+	 * @param taken
+	 *            The number of tricks, 0-13
+	 * @return the chance of taking that many tricks, 0 to 1
+	 */
+	public double getTrickChance(int taken) {
+		long n = getSamples();
+		return n == 0 ? 0 : tricks[taken] / (double) n;
+	}
+
+	/**
+	 * Returns the bid the partner is taken to make, the tricks it took on
+	 * average in the hands played out for the last bid.
+	 *
+	 * @return the number of tricks, 0-13
+	 */
+	public int getPartnerBid() {
+		long n = getSamples();
+		return n == 0 ? 0 : (int) Math.round(partnerTricks / (double) n);
+	}
+
+	/**
+	 * Returns the average score of the team for a bid over the hands played
+	 * out for the last bid, with the partner bidding getPartnerBid and
+	 * counting the long run cost of sand bags.
+	 *
+	 * @param bid
+	 *            The number of tricks bid, 0-13
+	 * @return the average points of the team
+	 */
+	public double expectedScore(int bid) {
+		return expectedScore(teamTricks, bid + getPartnerBid());
+	}
+
+	/**
+	 * Returns the bid with the best average score for a hand that took each
+	 * number of tricks some number of times on its own, without a partner
+	 * to cover a shortfall. BidTable uses it, since its groups only count the
+	 * tricks of the hand itself.
+	 *
+	 * @param tricks
+	 *            The number of times 0 to 13 tricks were taken.
+	 * @return the number of tricks to bid, 0-13
+	 */
+	static int bestBid(long[] tricks) {
+		int best = 0;
+		for (int b = 1; b <= 13; b++) {
+			if (expectedScore(tricks, b) > expectedScore(tricks, best))
+				best = b;
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the average score of a bid for a hand or a team that took each
+	 * number of tricks some number of times, counting the long run cost of
+	 * sand bags.
+	 *
+	 * @param tricks
+	 *            The number of times 0 to 13 tricks were taken.
+	 * @param bid
+	 *            The number of tricks bid, 0-26 for a team
+	 * @return the average points of the bid, 0 if tricks is all 0
+	 */
+	static double expectedScore(long[] tricks, int bid) {
+		long n = 0;
+		double total = 0;
+		for (int taken = 0; taken <= 13; taken++) {
+			int points = taken < bid ? -10 * bid : 10 * bid + (taken - bid) * (1 - BAG_COST);
+			total += points * (double) tricks[taken];
+			n += tricks[taken];
+		}
+		return n == 0 ? 0 : total / n;
+	}
+
+	/**
+	 * Plays the 13 rounds of a hand with bots, starting from a leader.
+	 *
+	 * @param bots
+	 *            The four bots, with their hands dealt.
+	 * @param memory
+	 *            The empty memory of the bots' game.
+	 * @param pile
+	 *            A list to hold the cards of each round.
+	 * @param leader
+	 *            The seat that leads the first round.
+	 * @param taken
+	 *            The array the tricks taken by each seat are written to.
+	 */
+	static void playOut(Bot[] bots, Memory memory, ArrayList<Card> pile, int leader, int[] taken) {
+		for (int s = 0; s < 4; s++)
+			taken[s] = 0;
+		for (int round = 0; round < 13; round++) {
+			pile.clear();
+			for (int k = 0; k < 4; k++) {
+				int seat = (leader + k) & 3;
+				Card card = bots[seat].playCard(pile);
+				memory.add(card, seat);
+				if (k > 0 && card.getSuit() != pile.get(0).getSuit())
+					memory.markVoid(seat, pile.get(0).getSuit());
+				pile.add(card);
+			}
+			leader = TrickResolver.winner(pile.get(0).getOrdinal(), pile.get(1).getOrdinal(),
+					pile.get(2).getOrdinal(), pile.get(3).getOrdinal(), leader);
+			taken[leader]++;
+		}
+	}
+
+	/*
+	 * INNER CLASSES
+	 */
+
+	/**
+	 * Plays a hand out with random other hands on one thread until the
+	 * deadline, counting how often it and its team take each number of
+	 * tricks.
+	 */
+	private static class Sampler implements Runnable {
+
+		private final long hand; // the cards of the hand bid on, held by seat 0.
+		private final int samples; // the most hands to play.
+		private final long deadline; // System.nanoTime to stop at.
+		private final SplittableRandom random; // the random numbers of the deals.
+		private final long[] tricks = new long[14]; // hands taking each number of tricks.
+		private final long[] teamTricks = new long[14]; // hands whose team took each number of tricks.
+		private long partnerTricks; // tricks the partner, seat 2, took in all hands.
+
+		Sampler(long hand, int samples, long deadline, SplittableRandom random) {
+			this.hand = hand;
+			this.samples = samples;
+			this.deadline = deadline;
+			this.random = random;
+		}
+
+		@Override
+		public void run() {
+			GameContext context = new GameContext(BOTS, random);
+			Bot[] bots = new Bot[4];
+			for (int s = 0; s < 4; s++)
+				bots[s] = new Bot(context);
+			int[] cards = new int[39];
+			ArrayList<Card> pile = new ArrayList<>(4);
+			int[] taken = new int[4];
+			for (int i = 0; i < samples && System.nanoTime() - deadline < 0; i++) {
+				deal(bots, cards);
+				context.newHand();
+				playOut(bots, context.getMemory(), pile, random.nextInt(4), taken);
+				tricks[taken[0]]++;
+				teamTricks[taken[0] + taken[2]]++;
+				partnerTricks += taken[2];
+			}
+		}
+
+		/**
+		 * Gives the hand to seat 0 and deals the other 39 cards at random to
+		 * the other seats.
+		 */
+		private void deal(Bot[] bots, int[] cards) {
+			int n = 0;
+			for (long m = CardSet.ALL & ~hand; m != 0; m &= m - 1)
+				cards[n++] = Long.numberOfTrailingZeros(m);
+			for (int i = n - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				int swap = cards[i];
+				cards[i] = cards[j];
+				cards[j] = swap;
+			}
+			bots[0].setHand(new Hand(hand));
+			for (int s = 1; s < 4; s++) {
+				long mask = 0L;
+				for (int i = (s - 1) * 13; i < s * 13; i++)
+					mask |= CardSet.bit(cards[i]);
+				bots[s].setHand(new Hand(mask));
+			}
+		}
+	}
+}
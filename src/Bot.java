@@ -12,15 +12,27 @@ import java.util.ArrayList;
  */
 public class Bot extends Player {
 
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	private final GameContext context; // the game this bot is playing in.
+	private long legal; // the cards the bot can play this turn, see Rules.
+
 	/*
 	 * CONSTRUCTORS
 	 */
 
 	/**
-	 * Default constructor, calls Player's constructor
+	 * Calls Player's constructor, the bot plays in a game's context
+	 * 
+	 * @param context
+	 *            The game the bot is playing in, its memory is the cards
+	 *            already played
 	 */
-	public Bot() {
+	public Bot(GameContext context) {
 		super();
+		this.context = context;
 	}
 
 	/**
@@ -28,9 +40,22 @@ public class Bot extends Player {
 	 * 
 	 * @param name
 	 *            Name for the bot
+	 * @param context
+	 *            The game the bot is playing in, its memory is the cards
+	 *            already played
 	 */
-	public Bot(String name) {
+	public Bot(String name, GameContext context) {
 		super(name);
+		this.context = context;
+	}
+
+	/**
+	 * Returns the context of the game this bot is playing in.
+	 * 
+	 * @return the seats, memory and random numbers of the game
+	 */
+	GameContext getContext() {
+		return context;
 	}
 	
 	/*
@@ -39,13 +64,21 @@ public class Bot extends Player {
 
 	/**
 	 * Play card takes in the cards already in the middle pile, and plays a
-	 * smart, legal card, based on the other cards player.
+	 * smart, legal card, based on the other cards player. Only the cards Rules
+	 * allows are considered.
 	 * 
 	 * @param list
 	 *            the middle pile (cards already played)
 	 * @return The played bot card
 	 */
     Card playCard(ArrayList<Card> list) {
+        // spades are broken once one has been played in an earlier round or
+        // in this one
+        boolean spadesBroken = context.getMemory().count(Suit.SPADE) > 0;
+        for (Card c : list)
+            spadesBroken |= c.getSuit() == Suit.SPADE;
+        legal = Rules.legalMoves(getHand().getBits(), list, spadesBroken);
+
         // call the correct play card based
         if (list.size() == 0)
 			return playCard0();
@@ -66,81 +99,78 @@ public class Bot extends Player {
 	 */
     private Card playCard0() {
         // if you have an ace, play it
-        if (getHand().contains(new Card(Suit.CLUB, 1))) {
-			getHand().remove(new Card(Suit.CLUB, 1));
-			return new Card(Suit.CLUB, 1);
+        if (has(Card.of(Suit.CLUB, 1))) {
+			getHand().remove(Card.of(Suit.CLUB, 1));
+			return Card.of(Suit.CLUB, 1);
 		}
-		if (getHand().contains(new Card(Suit.HEART, 1))) {
-			getHand().remove(new Card(Suit.HEART, 1));
-			return new Card(Suit.HEART, 1);
+		if (has(Card.of(Suit.HEART, 1))) {
+			getHand().remove(Card.of(Suit.HEART, 1));
+			return Card.of(Suit.HEART, 1);
 		}
-		if (getHand().contains(new Card(Suit.DIAMOND, 1))) {
-			getHand().remove(new Card(Suit.DIAMOND, 1));
-			return new Card(Suit.DIAMOND, 1);
+		if (has(Card.of(Suit.DIAMOND, 1))) {
+			getHand().remove(Card.of(Suit.DIAMOND, 1));
+			return Card.of(Suit.DIAMOND, 1);
 		}
 
 		// if an ace has been played and you have the king of that suit, play
 		// that.
-		if (Driver.memory.contains(new Card(Suit.CLUB, 1)) && getHand().contains(new Card(Suit.CLUB, 13))) {
-			getHand().remove(new Card(Suit.CLUB, 13));
-			return new Card(Suit.CLUB, 13);
+		if (holdsHighest(Card.of(Suit.CLUB, 13))) {
+			getHand().remove(Card.of(Suit.CLUB, 13));
+			return Card.of(Suit.CLUB, 13);
 		}
-		if (Driver.memory.contains(new Card(Suit.HEART, 1)) && getHand().contains(new Card(Suit.HEART, 13))) {
-			getHand().remove(new Card(Suit.HEART, 13));
-			return new Card(Suit.HEART, 13);
+		if (holdsHighest(Card.of(Suit.HEART, 13))) {
+			getHand().remove(Card.of(Suit.HEART, 13));
+			return Card.of(Suit.HEART, 13);
 		}
-		if (Driver.memory.contains(new Card(Suit.DIAMOND, 1)) && getHand().contains(new Card(Suit.DIAMOND, 13))) {
-			getHand().remove(new Card(Suit.DIAMOND, 13));
-			return new Card(Suit.DIAMOND, 13);
+		if (holdsHighest(Card.of(Suit.DIAMOND, 13))) {
+			getHand().remove(Card.of(Suit.DIAMOND, 13));
+			return Card.of(Suit.DIAMOND, 13);
 		}
 
 		// if an ace and king have been played and you have the queen of that
 		// suit, play that.
-		if (Driver.memory.contains(new Card(Suit.DIAMOND, 1)) && Driver.memory.contains(new Card(Suit.DIAMOND, 13))
-				&& getHand().contains(new Card(Suit.DIAMOND, 12))) {
-			getHand().remove(new Card(Suit.DIAMOND, 12));
-			return new Card(Suit.DIAMOND, 12);
+		if (holdsHighest(Card.of(Suit.DIAMOND, 12))) {
+			getHand().remove(Card.of(Suit.DIAMOND, 12));
+			return Card.of(Suit.DIAMOND, 12);
 		}
-		if (Driver.memory.contains(new Card(Suit.HEART, 1)) && Driver.memory.contains(new Card(Suit.HEART, 13))
-				&& getHand().contains(new Card(Suit.HEART, 12))) {
-			getHand().remove(new Card(Suit.HEART, 12));
-			return new Card(Suit.HEART, 12);
+		if (holdsHighest(Card.of(Suit.HEART, 12))) {
+			getHand().remove(Card.of(Suit.HEART, 12));
+			return Card.of(Suit.HEART, 12);
 		}
-		if (Driver.memory.contains(new Card(Suit.CLUB, 1)) && Driver.memory.contains(new Card(Suit.CLUB, 13))
-				&& getHand().contains(new Card(Suit.CLUB, 12))) {
-			getHand().remove(new Card(Suit.CLUB, 12));
-			return new Card(Suit.CLUB, 12);
+		if (holdsHighest(Card.of(Suit.CLUB, 12))) {
+			getHand().remove(Card.of(Suit.CLUB, 12));
+			return Card.of(Suit.CLUB, 12);
 		}
 
 		// play a low, throw away card
 		for (int i = 2; i < 13; i++) {
-			if (getHand().contains(new Card(Suit.DIAMOND, i))) {
-				getHand().remove(new Card(Suit.DIAMOND, i));
-				return new Card(Suit.DIAMOND, i);
+			if (has(Card.of(Suit.DIAMOND, i))) {
+				getHand().remove(Card.of(Suit.DIAMOND, i));
+				return Card.of(Suit.DIAMOND, i);
 			}
-			if (getHand().contains(new Card(Suit.HEART, i))) {
-				getHand().remove(new Card(Suit.HEART, i));
-				return new Card(Suit.HEART, i);
+			if (has(Card.of(Suit.HEART, i))) {
+				getHand().remove(Card.of(Suit.HEART, i));
+				return Card.of(Suit.HEART, i);
 			}
-			if (getHand().contains(new Card(Suit.CLUB, i))) {
-				getHand().remove(new Card(Suit.CLUB, i));
-				return new Card(Suit.CLUB, i);
+			if (has(Card.of(Suit.CLUB, i))) {
+				getHand().remove(Card.of(Suit.CLUB, i));
+				return Card.of(Suit.CLUB, i);
 			}
 		}
 
 		// last case, play a low spade
 		for (int i = 2; i < 13; i++) {
-			if (getHand().contains(new Card(Suit.SPADE, i))) {
-				getHand().remove(new Card(Suit.SPADE, i));
-				return new Card(Suit.SPADE, i);
+			if (has(Card.of(Suit.SPADE, i))) {
+				getHand().remove(Card.of(Suit.SPADE, i));
+				return Card.of(Suit.SPADE, i);
 			}
-			if (getHand().contains(new Card(Suit.SPADE, 1))) {
-				getHand().remove(new Card(Suit.SPADE, 1));
-				return new Card(Suit.SPADE, 1);
+			if (has(Card.of(Suit.SPADE, 1))) {
+				getHand().remove(Card.of(Suit.SPADE, 1));
+				return Card.of(Suit.SPADE, 1);
 			}
 		}
 
-		return getHand().remove(0);
+		return playLowest();
 	}
 
 	/**
@@ -153,37 +183,37 @@ public class Bot extends Player {
 	 */
     private Card playCard1(Card card1) {
         // check to see if you have an ace of that suit
-        if (getHand().contains(new Card(card1.getSuit(), 1))) {
-			getHand().remove(new Card(card1.getSuit(), 1));
-			return new Card(card1.getSuit(), 1);
+        if (has(Card.of(card1.getSuit(), 1))) {
+			getHand().remove(Card.of(card1.getSuit(), 1));
+			return Card.of(card1.getSuit(), 1);
 		}
 
 		// play the highest card thats bigger than the one played
 		for (int i = 13; i >= 1; i--) {
-			if (getHand().contains(new Card(card1.getSuit(), i))
-					&& Card.compareTo2(new Card(card1.getSuit(), i), card1) == 1) {
-				getHand().remove(new Card(card1.getSuit(), i));
-				return new Card(card1.getSuit(), i);
+			if (has(Card.of(card1.getSuit(), i))
+					&& Card.compareTo2(Card.of(card1.getSuit(), i), card1) == 1) {
+				getHand().remove(Card.of(card1.getSuit(), i));
+				return Card.of(card1.getSuit(), i);
 			}
 		}
 
 		// play a low legal card if you cannot beat the first
 		for (int i = 2; i < 13; i++) {
-			if (getHand().contains(new Card(card1.getSuit(), i))) {
-				getHand().remove(new Card(card1.getSuit(), i));
-				return new Card(card1.getSuit(), i);
+			if (has(Card.of(card1.getSuit(), i))) {
+				getHand().remove(Card.of(card1.getSuit(), i));
+				return Card.of(card1.getSuit(), i);
 			}
 		}
 
 		// play a low spade
 		for (int i = 2; i < 13; i++) {
-			if (getHand().contains(new Card(Suit.SPADE, i))) {
-				getHand().remove(new Card(Suit.SPADE, i));
-				return new Card(Suit.SPADE, i);
+			if (has(Card.of(Suit.SPADE, i))) {
+				getHand().remove(Card.of(Suit.SPADE, i));
+				return Card.of(Suit.SPADE, i);
 			}
 		}
 
-		return getHand().remove(0);
+		return playLowest();
 	}
 
 	/**
@@ -203,71 +233,51 @@ public class Bot extends Player {
 		// if the second card is a spade, but you have cards of the first suit,
 		// you cannot win this hand, so play a low card
 		if (card1.getSuit() != card2.getSuit() && card2.getSuit().equals(Suit.SPADE)) {
-			for (int i = 2; i <= 14; i++) {
-				if (getHand().contains(new Card(card1.getSuit(), i))) {
-					getHand().remove(new Card(card1.getSuit(), i));
-					return new Card(card1.getSuit(), i);
+			for (int i = 2; i <= 13; i++) {
+				if (has(Card.of(card1.getSuit(), i))) {
+					getHand().remove(Card.of(card1.getSuit(), i));
+					return Card.of(card1.getSuit(), i);
 				}
 			}
 
-			if (getHand().contains(new Card(card1.getSuit(), 1))) {
-				getHand().remove(new Card(card1.getSuit(), 1));
-				return new Card(card1.getSuit(), 1);
+			if (has(Card.of(card1.getSuit(), 1))) {
+				getHand().remove(Card.of(card1.getSuit(), 1));
+				return Card.of(card1.getSuit(), 1);
 			}
 		}
 
 		// find the highest Card
 		if (card1.getSuit() == Suit.SPADE && card2.getSuit() != Suit.SPADE) {
-			highCard = new Card(card1.getSuit(), card1.getNumber());
+			highCard = card1;
 		}
 		if (card2.getSuit() == Suit.SPADE && card1.getSuit() != Suit.SPADE) {
-			highCard = new Card(card2.getSuit(), card2.getNumber());
+			highCard = card2;
 		}
 
 		if (card1.getSuit() == card2.getSuit()) {
 			if (card1.getNumber() > card2.getNumber())
-				highCard = new Card(card1.getSuit(), card1.getNumber());
+				highCard = card1;
 			else
-				highCard = new Card(card2.getSuit(), card2.getNumber());
+				highCard = card2;
 		}
 
 		if (card1.getSuit() != card2.getSuit() && card2.getSuit() != Suit.SPADE) {
-			highCard = new Card(card1.getSuit(), card1.getNumber());
+			highCard = card1;
 		}
 
 		// check if the suits are the same, and the first card is higher
 		// try to beat the higher card.
 		if (card1.getSuit() == card2.getSuit()) {
             assert highCard != null;
-            if (getHand().contains(new Card(highCard.getSuit(), 1))) {
-                getHand().remove(new Card(highCard.getSuit(), 1));
-				return new Card(highCard.getSuit(), 1);
-			}
-
-			if (Driver.memory.contains(new Card(highCard.getSuit(), 1))) {
-				if (getHand().contains(new Card(highCard.getSuit(), 13))) {
-					getHand().remove(new Card(highCard.getSuit(), 13));
-					return new Card(highCard.getSuit(), 13);
-				}
-				if (Driver.memory.contains(new Card(highCard.getSuit(), 13))) {
-					if (getHand().contains(new Card(highCard.getSuit(), 12))) {
-						getHand().remove(new Card(highCard.getSuit(), 12));
-						return new Card(highCard.getSuit(), 12);
-					}
-					if (Driver.memory.contains(new Card(highCard.getSuit(), 12))) {
-						if (getHand().contains(new Card(highCard.getSuit(), 11))) {
-							getHand().remove(new Card(highCard.getSuit(), 11));
-							return new Card(highCard.getSuit(), 11);
-						}
-						if (Driver.memory.contains(new Card(highCard.getSuit(), 11))) {
-							if (getHand().contains(new Card(highCard.getSuit(), 10))) {
-								getHand().remove(new Card(highCard.getSuit(), 10));
-								return new Card(highCard.getSuit(), 10);
-							}
-						}
-					}
-				}
-			}
+            // play the highest card left in the suit if you have it, down
+            // to the ten once everything above it has been played, and it
+            // beats the card on the table
+            Card top = context.getMemory().highestOutstanding(highCard.getSuit());
+            if (top != null && (top.getNumber() == 1 || top.getNumber() >= 10) && has(top)
+                    && top.getOrdinal() > highCard.getOrdinal()) {
+                getHand().remove(top);
+                return top;
+            }
 		}
 
 		// if the first card is the higher one and its not an ace, try to beat
@@ -275,82 +285,82 @@ public class Bot extends Player {
         assert highCard != null;
         if ((highCard.getSuit() == card1.getSuit() && highCard.getNumber() == card1.getNumber())
                 && highCard.getNumber() != 1) {
-			for (int i = highCard.getNumber(); i <= 14; i++) {
-				if (getHand().contains(new Card(card1.getSuit(), i))) {
-					getHand().remove(new Card(card1.getSuit(), i));
-					return new Card(card1.getSuit(), i);
+			for (int i = highCard.getNumber(); i <= 13; i++) {
+				if (has(Card.of(card1.getSuit(), i))) {
+					getHand().remove(Card.of(card1.getSuit(), i));
+					return Card.of(card1.getSuit(), i);
 				}
 			}
 
-			if (getHand().contains(new Card(card1.getSuit(), 1))) {
-				getHand().remove(new Card(card1.getSuit(), 1));
-				return new Card(card1.getSuit(), 1);
+			if (has(Card.of(card1.getSuit(), 1))) {
+				getHand().remove(Card.of(card1.getSuit(), 1));
+				return Card.of(card1.getSuit(), 1);
 			}
 		}
 
 		// play a low card of the first suit.
-		for (int i = 2; i <= 14; i++) {
-			if (getHand().contains(new Card(card1.getSuit(), i))) {
-				getHand().remove(new Card(card1.getSuit(), i));
-				return new Card(card1.getSuit(), i);
+		for (int i = 2; i <= 13; i++) {
+			if (has(Card.of(card1.getSuit(), i))) {
+				getHand().remove(Card.of(card1.getSuit(), i));
+				return Card.of(card1.getSuit(), i);
 			}
 		}
 
-		if (getHand().contains(new Card(card1.getSuit(), 1))) {
-			getHand().remove(new Card(card1.getSuit(), 1));
-			return new Card(card1.getSuit(), 1);
+		if (has(Card.of(card1.getSuit(), 1))) {
+			getHand().remove(Card.of(card1.getSuit(), 1));
+			return Card.of(card1.getSuit(), 1);
 		}
 
 		// if the second card is a spade thats higher, try to beat it, if not,
 		// play a low card
 		if (card2.getSuit() == Suit.SPADE && card1.getSuit() != Suit.SPADE) {
 			for (int i = card2.getNumber(); i < 14; i++) {
-				if (getHand().contains(new Card(Suit.SPADE, i))) {
-					getHand().remove(new Card(Suit.SPADE, i));
-					return new Card(Suit.SPADE, i);
+				if (has(Card.of(Suit.SPADE, i))) {
+					getHand().remove(Card.of(Suit.SPADE, i));
+					return Card.of(Suit.SPADE, i);
 				}
 			}
-			if (getHand().contains(new Card(Suit.SPADE, 1))) {
-				getHand().remove(new Card(Suit.SPADE, 1));
-				return new Card(Suit.SPADE, 1);
+			if (has(Card.of(Suit.SPADE, 1))) {
+				getHand().remove(Card.of(Suit.SPADE, 1));
+				return Card.of(Suit.SPADE, 1);
 			}
 		}
 
 		// play a low spade
-		for (int i = 2; i <= 14; i++) {
-			if (getHand().contains(new Card(Suit.SPADE, i))) {
-				getHand().remove(new Card(Suit.SPADE, i));
-				return new Card(Suit.SPADE, i);
+		for (int i = 2; i <= 13; i++) {
+			if (has(Card.of(Suit.SPADE, i))) {
+				getHand().remove(Card.of(Suit.SPADE, i));
+				return Card.of(Suit.SPADE, i);
 			}
 		}
 
-		if (getHand().contains(new Card(Suit.SPADE, 1))) {
-			getHand().remove(new Card(Suit.SPADE, 1));
-			return new Card(Suit.SPADE, 1);
+		if (has(Card.of(Suit.SPADE, 1))) {
+			getHand().remove(Card.of(Suit.SPADE, 1));
+			return Card.of(Suit.SPADE, 1);
 		}
 
 		// try to play the lowest club, heart or diamond
 		for (int i = 2; i <= 13; i++) {
-			if (getHand().contains(new Card(Suit.CLUB, i))) {
-				getHand().remove(new Card(Suit.CLUB, i));
-				return new Card(Suit.CLUB, i);
+			if (has(Card.of(Suit.CLUB, i))) {
+				getHand().remove(Card.of(Suit.CLUB, i));
+				return Card.of(Suit.CLUB, i);
 			}
-			if (getHand().contains(new Card(Suit.HEART, i))) {
-				getHand().remove(new Card(Suit.HEART, i));
-				return new Card(Suit.HEART, i);
+			if (has(Card.of(Suit.HEART, i))) {
+				getHand().remove(Card.of(Suit.HEART, i));
+				return Card.of(Suit.HEART, i);
 			}
 		}
-		if (getHand().contains(new Card(Suit.CLUB, 1))) {
-			getHand().remove(new Card(Suit.CLUB, 1));
-			return new Card(Suit.CLUB, 1);
+		if (has(Card.of(Suit.CLUB, 1))) {
+			getHand().remove(Card.of(Suit.CLUB, 1));
+			return Card.of(Suit.CLUB, 1);
 		}
-		if (getHand().contains(new Card(Suit.HEART, 1))) {
-			getHand().remove(new Card(Suit.HEART, 1));
-			return new Card(Suit.HEART, 1);
+		if (has(Card.of(Suit.HEART, 1))) {
+			getHand().remove(Card.of(Suit.HEART, 1));
+			return Card.of(Suit.HEART, 1);
 		}
-		if (getHand().contains(new Card(Suit.DIAMOND, 1))) {
-			getHand().remove(new Card(Suit.DIAMOND, 1));
-			return new Card(Suit.DIAMOND, 1);
+		if (has(Card.of(Suit.DIAMOND, 1))) {
+			getHand().remove(Card.of(Suit.DIAMOND, 1));
+			return Card.of(Suit.DIAMOND, 1);
 		}
 
 		// this is only used in dire situations, it makes the bot play a legal
@@ -363,16 +373,16 @@ public class Bot extends Player {
 			}
 		}
 		for (int i = 13; i > 1; i--) {
-			if (getHand().contains(new Card(Suit.SPADE, 1))) {
-				getHand().remove(new Card(Suit.SPADE, 1));
-				return new Card(Suit.SPADE, 1);
+			if (has(Card.of(Suit.SPADE, 1))) {
+				getHand().remove(Card.of(Suit.SPADE, 1));
+				return Card.of(Suit.SPADE, 1);
 			}
-			if (getHand().contains(new Card(Suit.SPADE, i))) {
-				getHand().remove(new Card(Suit.SPADE, i));
-				return new Card(Suit.SPADE, i);
+			if (has(Card.of(Suit.SPADE, i))) {
+				getHand().remove(Card.of(Suit.SPADE, i));
+				return Card.of(Suit.SPADE, i);
 			}
 		}
-		return getHand().remove(0);
+		return playLowest();
 	}
 
 	/**
@@ -395,15 +405,15 @@ public class Bot extends Player {
 
 		// find the highest card, if you only have spades and one other suit.
 		if (Card.compareTo2(card1, card2) == 1)
-			highCard = new Card(card1.getSuit(), card1.getNumber());
+			highCard = card1;
 		else {
 			if (card2.getSuit() == Suit.SPADE || card2.getSuit() == card1.getSuit())
-				highCard = new Card(card2.getSuit(), card2.getNumber());
+				highCard = card2;
 		}
 
 		if (Card.compareTo2(highCard, card3) == -1) {
 			if (card3.getSuit() == Suit.SPADE || card3.getSuit() == card1.getSuit())
-				highCard = new Card(card3.getSuit(), card3.getNumber());
+				highCard = card3;
 		}
 
 		// if the second card is the highest, that is your partner, so you
@@ -412,123 +422,160 @@ public class Bot extends Player {
         assert highCard != null;
         if (highCard.getSuit() == card2.getSuit() && highCard.getNumber() == card2.getNumber()) {
             for (int i = 2; i <= 13; i++) {
-				if (getHand().contains(new Card(card1.getSuit(), i))) {
-					getHand().remove(new Card(card1.getSuit(), i));
-					return new Card(card1.getSuit(), i);
+				if (has(Card.of(card1.getSuit(), i))) {
+					getHand().remove(Card.of(card1.getSuit(), i));
+					return Card.of(card1.getSuit(), i);
 				}
 			}
-			if (getHand().contains(new Card(card1.getSuit(), 1))) {
-				getHand().remove(new Card(card1.getSuit(), 1));
-				return new Card(card1.getSuit(), 1);
+			if (has(Card.of(card1.getSuit(), 1))) {
+				getHand().remove(Card.of(card1.getSuit(), 1));
+				return Card.of(card1.getSuit(), 1);
 			}
 			for (int i = 2; i <= 13; i++) {
-				if (getHand().contains(new Card(Suit.HEART, i))) {
-					getHand().remove(new Card(Suit.HEART, i));
-					return new Card(Suit.HEART, i);
+				if (has(Card.of(Suit.HEART, i))) {
+					getHand().remove(Card.of(Suit.HEART, i));
+					return Card.of(Suit.HEART, i);
 				}
-				if (getHand().contains(new Card(Suit.DIAMOND, i))) {
-					getHand().remove(new Card(Suit.DIAMOND, i));
-					return new Card(Suit.DIAMOND, i);
+				if (has(Card.of(Suit.DIAMOND, i))) {
+					getHand().remove(Card.of(Suit.DIAMOND, i));
+					return Card.of(Suit.DIAMOND, i);
 				}
-				if (getHand().contains(new Card(Suit.CLUB, i))) {
-					getHand().remove(new Card(Suit.CLUB, i));
-					return new Card(Suit.CLUB, i);
+				if (has(Card.of(Suit.CLUB, i))) {
+					getHand().remove(Card.of(Suit.CLUB, i));
+					return Card.of(Suit.CLUB, i);
 				}
 			}
-			if (getHand().contains(new Card(Suit.HEART, 1))) {
-				getHand().remove(new Card(Suit.HEART, 1));
-				return new Card(Suit.HEART, 1);
+			if (has(Card.of(Suit.HEART, 1))) {
+				getHand().remove(Card.of(Suit.HEART, 1));
+				return Card.of(Suit.HEART, 1);
 			}
-			if (getHand().contains(new Card(Suit.CLUB, 1))) {
-				getHand().remove(new Card(Suit.CLUB, 1));
-				return new Card(Suit.CLUB, 1);
+			if (has(Card.of(Suit.CLUB, 1))) {
+				getHand().remove(Card.of(Suit.CLUB, 1));
+				return Card.of(Suit.CLUB, 1);
 			}
-			if (getHand().contains(new Card(Suit.DIAMOND, 1))) {
-				getHand().remove(new Card(Suit.DIAMOND, 1));
-				return new Card(Suit.DIAMOND, 1);
+			if (has(Card.of(Suit.DIAMOND, 1))) {
+				getHand().remove(Card.of(Suit.DIAMOND, 1));
+				return Card.of(Suit.DIAMOND, 1);
 			}
 		}
 
 		// if the high card is the first suit, try to beat it.
 		if (highCard.getSuit() == card1.getSuit()) {
 			for (int i = highCard.getNumber(); i <= 13; i++) {
-				if (getHand().contains(new Card(highCard.getSuit(), i))) {
-					getHand().remove(new Card(highCard.getSuit(), i));
-					return new Card(highCard.getSuit(), i);
+				if (has(Card.of(highCard.getSuit(), i))) {
+					getHand().remove(Card.of(highCard.getSuit(), i));
+					return Card.of(highCard.getSuit(), i);
 				}
 			}
-			if (getHand().contains(new Card(highCard.getSuit(), 1))) {
-				getHand().remove(new Card(highCard.getSuit(), 1));
-				return new Card(highCard.getSuit(), 1);
+			if (has(Card.of(highCard.getSuit(), 1))) {
+				getHand().remove(Card.of(highCard.getSuit(), 1));
+				return Card.of(highCard.getSuit(), 1);
 			}
 		}
 
 		// play a legal card of the first cards suit.
 		for (int i = 2; i <= 13; i++) {
-			if (getHand().contains(new Card(card1.getSuit(), i))) {
-				getHand().remove(new Card(card1.getSuit(), i));
-				return new Card(card1.getSuit(), i);
+			if (has(Card.of(card1.getSuit(), i))) {
+				getHand().remove(Card.of(card1.getSuit(), i));
+				return Card.of(card1.getSuit(), i);
 			}
 		}
-		if (getHand().contains(new Card(card1.getSuit(), 1))) {
-			getHand().remove(new Card(card1.getSuit(), 1));
-			return new Card(card1.getSuit(), 1);
+		if (has(Card.of(card1.getSuit(), 1))) {
+			getHand().remove(Card.of(card1.getSuit(), 1));
+			return Card.of(card1.getSuit(), 1);
 		}
 
 		// play a legal card , higher than the highest
 		if (highCard.getNumber() != 1) {
 			for (int i = highCard.getNumber() + 1; i < 14; i++) {
-				if (getHand().contains(new Card(highCard.getSuit(), i))) {
-					getHand().remove(new Card(highCard.getSuit(), i));
-					return new Card(highCard.getSuit(), i);
+				if (has(Card.of(highCard.getSuit(), i))) {
+					getHand().remove(Card.of(highCard.getSuit(), i));
+					return Card.of(highCard.getSuit(), i);
 				}
 			}
-			if (getHand().contains(new Card(highCard.getSuit(), 1))) {
-				getHand().remove(new Card(highCard.getSuit(), 1));
-				return new Card(highCard.getSuit(), 1);
+			if (has(Card.of(highCard.getSuit(), 1))) {
+				getHand().remove(Card.of(highCard.getSuit(), 1));
+				return Card.of(highCard.getSuit(), 1);
 			}
 		}
 
 		// play your lowest spade that beats the high card
 		for (int i = 2; i < 14; i++) {
-			if (getHand().contains(new Card(Suit.SPADE, i))) {
-				getHand().remove(new Card(Suit.SPADE, i));
-				return new Card(Suit.SPADE, i);
+			if (has(Card.of(Suit.SPADE, i))) {
+				getHand().remove(Card.of(Suit.SPADE, i));
+				return Card.of(Suit.SPADE, i);
 			}
 		}
-		if (getHand().contains(new Card(Suit.SPADE, 1))) {
-			getHand().remove(new Card(Suit.SPADE, 1));
-			return new Card(Suit.SPADE, 1);
+		if (has(Card.of(Suit.SPADE, 1))) {
+			getHand().remove(Card.of(Suit.SPADE, 1));
+			return Card.of(Suit.SPADE, 1);
 		}
 
 		// if all else fails, and you can't beat it, play your lowest card
 		for (int i = 2; i < 14; i++) {
-			if (getHand().contains(new Card(Suit.HEART, i))) {
-				getHand().remove(new Card(Suit.HEART, i));
-				return new Card(Suit.HEART, i);
-			} else if (getHand().contains(new Card(Suit.CLUB, i))) {
-				getHand().remove(new Card(Suit.CLUB, i));
-				return new Card(Suit.CLUB, i);
-			} else if (getHand().contains(new Card(Suit.DIAMOND, i))) {
-				getHand().remove(new Card(Suit.DIAMOND, i));
-				return new Card(Suit.DIAMOND, i);
+			if (has(Card.of(Suit.HEART, i))) {
+				getHand().remove(Card.of(Suit.HEART, i));
+				return Card.of(Suit.HEART, i);
+			} else if (has(Card.of(Suit.CLUB, i))) {
+				getHand().remove(Card.of(Suit.CLUB, i));
+				return Card.of(Suit.CLUB, i);
+			} else if (has(Card.of(Suit.DIAMOND, i))) {
+				getHand().remove(Card.of(Suit.DIAMOND, i));
+				return Card.of(Suit.DIAMOND, i);
 			}
 		}
-		if (getHand().contains(new Card(Suit.HEART, 1))) {
-			getHand().remove(new Card(Suit.HEART, 1));
-			return new Card(Suit.HEART, 1);
+		if (has(Card.of(Suit.HEART, 1))) {
+			getHand().remove(Card.of(Suit.HEART, 1));
+			return Card.of(Suit.HEART, 1);
 		}
-		if (getHand().contains(new Card(Suit.CLUB, 1))) {
-			getHand().remove(new Card(Suit.CLUB, 1));
-			return new Card(Suit.CLUB, 1);
+		if (has(Card.of(Suit.CLUB, 1))) {
+			getHand().remove(Card.of(Suit.CLUB, 1));
+			return Card.of(Suit.CLUB, 1);
 		}
-		if (getHand().contains(new Card(Suit.DIAMOND, 1))) {
-			getHand().remove(new Card(Suit.DIAMOND, 1));
-			return new Card(Suit.DIAMOND, 1);
+		if (has(Card.of(Suit.DIAMOND, 1))) {
+			getHand().remove(Card.of(Suit.DIAMOND, 1));
+			return Card.of(Suit.DIAMOND, 1);
 		}
 
-		return getHand().remove(0);
+		return playLowest();
+
+	}
+
+	/**
+	 * Checks if a card is in the bot's hand and is the highest card of its
+	 * suit that has not been played, so every higher card has already been
+	 * played.
+	 * 
+	 * @param card
+	 *            The card to check.
+	 * @return true if the card is the highest left in its suit and in the
+	 *         hand, false otherwise
+	 */
+	private boolean holdsHighest(Card card) {
+		return context.getMemory().highestOutstanding(card.getSuit()) == card && has(card);
+	}
 
+	/**
+	 * Checks if a card is in the bot's hand and can be played this turn.
+	 * 
+	 * @param card
+	 *            The card to check.
+	 * @return true if the card can be played, false otherwise
+	 */
+	private boolean has(Card card) {
+		return (legal & CardSet.bit(card.getOrdinal())) != 0;
+	}
+
+	/**
+	 * Plays the lowest card the bot is allowed to play, used when no other
+	 * choice is made.
+	 * 
+	 * @return the card played
+	 */
+	private Card playLowest() {
+		Card card = Card.of(Long.numberOfTrailingZeros(legal));
+		getHand().remove(card);
+		return card;
 	}
 
-}
\ No newline at end of file
+}
@@ -1,13 +1,12 @@
-import javax.imageio.ImageIO;
-import javax.swing.*;
-import java.awt.*;
-import java.io.IOException;
-
-
 /**
  * The card class creates a card object that contains a
- * suit, a number, and a image that corresponds to that
- * suit and number. It is used in hand, deck and memory.
+ * suit and a number. It is used in hand, deck and memory.
+ * The card is only the game's value of the card, its
+ * image is kept by CardImages in the GUI.
+ *
+ * There are only ever 52 card objects, one for each card in a deck. They are
+ * created once and looked up with Card.of, so code that checks for a card
+ * never has to allocate one. Cards are immutable.
  *
  * @author Bob Laskowski
  * @author Peter Klein
@@ -20,39 +19,67 @@ public class Card implements Comparable<Card> {
      * INSTANCE VARIABLES
 	 */
 
-    private Suit mySuit; // the suit of the card.
-    private int number; // the number of the card.
-    private ImageIcon image; // the Image of the card based on the suit and number.
+    private final Suit mySuit; // the suit of the card.
+    private final int number; // the number of the card.
+    private final int ordinal; // the ordinal of the card, see getOrdinal.
+
+    /**
+     * The 52 card objects, indexed by ordinal.
+     */
+    private static final Card[] CARDS = new Card[52];
+
+    static {
+        for (Suit s : Suit.values()) {
+            for (int n = 1; n <= 13; n++) {
+                Card c = new Card(s, n);
+                CARDS[c.ordinal] = c;
+            }
+        }
+    }
 
 	/*
      * CONSTRUCTORS
 	 */
 
     /**
-     * Card constructor that make a new card based on suit, number and screen
-     * resolution.
+     * Card constructor that makes a new card based on the suit and number. Only
+     * used to fill the table of cards, use Card.of to get a card.
      *
-     * @param theSuit   the suit of the card, of the enumerated type Suit, defined in
-     *                  the Suit class, either Spade, Club, Diamond or Heart
-     * @param theNum    the number of the card, 1-13
-     * @param screenRes the screen resolution of the game, either 0 or 1
+     * @param theSuit the suit of the card.
+     * @param theNum  the number of the card.
      */
-    public Card(Suit theSuit, int theNum, int screenRes) {
+    private Card(Suit theSuit, int theNum) {
         mySuit = theSuit;
         number = theNum;
-        setImage(screenRes);
+        ordinal = suitIndex(theSuit) * 13 + (theNum + 11) % 13;
     }
 
+	/*
+     * STATIC FACTORIES
+	 */
+
     /**
-     * Card constructor that makes a new card based on the suit and number, used
-     * for defining a card for comparisons that will not actually be displayed
+     * Returns the card of a suit and number. The same card object is returned
+     * every time, so nothing is allocated.
      *
-     * @param theSuit the suit of the card.
-     * @param theNum  the number of the card.
+     * @param theSuit the suit of the card, either Spade, Club, Diamond or Heart
+     * @param theNum  the number of the card, 1-13
+     * @return the card of that suit and number
      */
-    public Card(Suit theSuit, int theNum) {
-        mySuit = theSuit;
-        number = theNum;
+    public static Card of(Suit theSuit, int theNum) {
+        if (theNum < 1 || theNum > 13)
+            throw new IllegalArgumentException("Card number must be 1-13: " + theNum);
+        return CARDS[suitIndex(theSuit) * 13 + (theNum + 11) % 13];
+    }
+
+    /**
+     * Returns the card of an ordinal, see getOrdinal.
+     *
+     * @param ordinal the ordinal of the card, 0-51
+     * @return the card with that ordinal
+     */
+    public static Card of(int ordinal) {
+        return CARDS[ordinal];
     }
 
 	/*
@@ -117,6 +144,65 @@ public class Card implements Comparable<Card> {
         }
     }
 
+    /**
+     * Returns the ordinal of this card, 0-51, used as its bit in a CardSet.
+     * Each suit takes 13 ordinals in the order heart, club, diamond, spade,
+     * and within a suit the two is lowest and the ace is highest.
+     *
+     * @return the ordinal of the card
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * Translates a Suit enum into the index of its block of ordinals.
+     *
+     * @param s Suit enum of the card
+     * @return 0 for heart, 1 for club, 2 for diamond, 3 for spade
+     */
+    static int suitIndex(Suit s) {
+        switch (s) {
+            case HEART:
+                return 0;
+            case CLUB:
+                return 1;
+            case DIAMOND:
+                return 2;
+            default:
+                return 3;
+        }
+    }
+
+    /**
+     * Returns the suit of a card ordinal.
+     *
+     * @param ordinal the ordinal of the card, 0-51
+     * @return the suit of that card
+     */
+    static Suit suitOf(int ordinal) {
+        switch (ordinal / 13) {
+            case 0:
+                return Suit.HEART;
+            case 1:
+                return Suit.CLUB;
+            case 2:
+                return Suit.DIAMOND;
+            default:
+                return Suit.SPADE;
+        }
+    }
+
+    /**
+     * Returns the number of a card ordinal.
+     *
+     * @param ordinal the ordinal of the card, 0-51
+     * @return the number of that card, 1-13 where 1 is the ace
+     */
+    static int numberOf(int ordinal) {
+        return (ordinal % 13 + 1) % 13 + 1;
+    }
+
     /**
      * Returns this cards suit.
      *
@@ -142,7 +228,7 @@ public class Card implements Comparable<Card> {
      * @param o A card object to compare with this card.
      */
     public boolean equals(Object o) {
-        if (getClass() != o.getClass())
+        if (o == null || getClass() != o.getClass())
             return false;
         Card otherCard = (Card) o;
         if (this.getSuit().equals(otherCard.getSuit())) {
@@ -152,6 +238,13 @@ public class Card implements Comparable<Card> {
         return false;
     }
 
+    /**
+     * Returns a hash code based on the suit and number of the card.
+     */
+    public int hashCode() {
+        return ordinal;
+    }
+
     /**
      * Returns the cards name based on its suit and number.
      *
@@ -224,80 +317,6 @@ public class Card implements Comparable<Card> {
         return cardName;
     }
 
-    /**
-     * Gets the image of the card
-     *
-     * @return An ImageIcon holding the card image
-     */
-    public ImageIcon getImage() {
-        return image;
-    }
-
-    /**
-     * setImage looks at the variables screen Resolution, suit, and number.
-     * Based on those three variables, it assigns the correct card image and
-     * size of image to the card
-     *
-     * @param screenRes 0 if high resolution, 1 if low resolution
-     */
-    private void setImage(int screenRes) {
-
-        String cardDef = "PNG-cards-1.3/";
-
-        if (number == 1)
-            cardDef += "ace_of_";
-        else if (number == 2)
-            cardDef += "2_of_";
-        else if (number == 3)
-            cardDef += "3_of_";
-        else if (number == 4)
-            cardDef += "4_of_";
-        else if (number == 5)
-            cardDef += "5_of_";
-        else if (number == 6)
-            cardDef += "6_of_";
-        else if (number == 7)
-            cardDef += "7_of_";
-        else if (number == 8)
-            cardDef += "8_of_";
-        else if (number == 9)
-            cardDef += "9_of_";
-        else if (number == 10)
-            cardDef += "10_of_";
-        else if (number == 11)
-            cardDef += "jack_of_";
-        else if (number == 12)
-            cardDef += "queen_of_";
-        else if (number == 13)
-            cardDef += "king_of_";
-
-        if (mySuit == Suit.SPADE)
-            cardDef += "spades.png";
-        if (mySuit == Suit.CLUB)
-            cardDef += "clubs.png";
-        if (mySuit == Suit.DIAMOND)
-            cardDef += "diamonds.png";
-        if (mySuit == Suit.HEART)
-            cardDef += "hearts.png";
-
-        Image img = null;
-        try {
-            img = ImageIO.read(getClass().getResourceAsStream(cardDef));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        Image scaledImage;
-        if (screenRes == 1) {
-            assert img != null;
-            scaledImage = img.getScaledInstance(50, 100, Image.SCALE_FAST);
-        } else {
-            assert img != null;
-            scaledImage = img.getScaledInstance(100, 200, Image.SCALE_FAST);
-        }
-
-        image = new ImageIcon(scaledImage);
-    }
-
     /**
      * Prints the name of the card using the getName method
      */
@@ -305,20 +324,6 @@ public class Card implements Comparable<Card> {
         return getName();
     }
 
-	/*
-     * PRIVATE METHODS
-	 */
-
-    /**
-     * Allows the screenResolution of the card to be changed, so the size of the
-     * card's image is changed appropriately
-     *
-     * @param screenRes 0 if high resolution, 1 if low resolution
-     */
-    public void setScreenRes(int screenRes) {
-        setImage(screenRes);
-    }
-
     /**
      * compare to compares two card objects, it first checks the suit. Spade
      * being the highest, diamond second, club third and heart last.
@@ -0,0 +1,325 @@
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * CardImages holds the images of the face up cards and of the face down hands
+ * for the GUI. Cards are only values, so any code that displays a card looks
+ * its image up here. Nothing in the game itself uses this class, so a game
+ * that is never displayed never loads an image.
+ *
+ * The images are shared by every GUI in the program. Each card is drawn once
+ * per screen resolution into an image of the exact size it is displayed at,
+ * so starting a new hand or a new game does not read or scale anything. The
+ * face down hands, one image for each number of cards left in a hand, are
+ * cached the same way so updating them after a round just swaps icons. warm
+ * fills the whole cache on a background thread.
+ *
+ * All of the images come from the atlas made by AtlasPacker, which is read and
+ * decoded once, and every image is cut out of it. If the atlas is missing the
+ * separate PNGs are read instead.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class CardImages {
+
+	/*
+     * INSTANCE VARIABLES
+	 */
+
+    /**
+     * The folder of the card images, next to this class.
+     */
+    private static final String FOLDER = "PNG-cards-1.3/";
+
+    /**
+     * The decoded atlas of every card image, null until the first image is
+     * rendered or if there is no atlas.
+     */
+    private static BufferedImage atlas;
+
+    /**
+     * The position of each image in the atlas, by name, as x, y, width and
+     * height. Null until the atlas is read.
+     */
+    private static HashMap<String, int[]> atlasIndex;
+
+    /**
+     * The sized images of the cards, indexed by screen resolution * 52 + card
+     * ordinal. Each image is rendered the first time it is asked for, or by
+     * warm, and never changes after that.
+     */
+    private static final AtomicReferenceArray<ImageIcon> IMAGES = new AtomicReferenceArray<>(2 * 52);
+
+    /**
+     * The sized images of the face down hands, indexed by backIndex. The
+     * images for 1 to 13 cards are rendered the first time they are asked
+     * for, or by warm.
+     */
+    private static final AtomicReferenceArray<ImageIcon> BACKS = new AtomicReferenceArray<>(2 * 2 * 14);
+
+	/*
+     * CONSTRUCTORS
+	 */
+
+    /**
+     * Only static methods, no CardImages objects are made.
+     */
+    private CardImages() {
+    }
+
+	/*
+     * PUBLIC METHODS
+	 */
+
+    /**
+     * Gets the image of a card at a screen resolution, loading it the first
+     * time it is asked for
+     *
+     * @param card      the card to get the image of
+     * @param screenRes 0 if high resolution, 1 if low resolution
+     * @return An ImageIcon holding the card image
+     */
+    public static ImageIcon get(Card card, int screenRes) {
+        ImageIcon image = IMAGES.get(screenRes * 52 + card.getOrdinal());
+        if (image == null)
+            image = render(card, screenRes);
+        return image;
+    }
+
+    /**
+     * Gets the image of a face down hand with a number of cards left in it. The
+     * image is 13 cards wide for a full hand and one card wide for the last
+     * card, and is turned on its side for the East and West players.
+     *
+     * @param numCards  the number of cards left in the hand, 0-13
+     * @param sideways  true for the East and West players, false for North and
+     *                  South
+     * @param screenRes 0 if high resolution, 1 if low resolution
+     * @return An ImageIcon holding the hand image, null if there are no cards
+     * left
+     */
+    public static ImageIcon getBack(int numCards, boolean sideways, int screenRes) {
+        if (numCards <= 0)
+            return null;
+        ImageIcon image = BACKS.get(backIndex(numCards, sideways, screenRes));
+        if (image == null)
+            image = renderBack(numCards, sideways, screenRes);
+        return image;
+    }
+
+    /**
+     * Starts a background thread that renders the images of every card and
+     * every face down hand at both screen resolutions, so they are ready before
+     * the first hand is dealt. Images asked for before the thread reaches them
+     * are rendered by the caller instead.
+     */
+    public static void warm() {
+        Thread warmer = new Thread(() -> {
+            for (int screenRes = 0; screenRes < 2; screenRes++) {
+                for (int n = 13; n > 0; n--) {
+                    getBack(n, false, screenRes);
+                    getBack(n, true, screenRes);
+                }
+                for (int i = 0; i < 52; i++)
+                    get(Card.of(i), screenRes);
+            }
+        }, "CardImages warmer");
+        warmer.setDaemon(true);
+        warmer.setPriority(Thread.MIN_PRIORITY);
+        warmer.start();
+    }
+
+	/*
+     * PRIVATE METHODS
+	 */
+
+    /**
+     * Returns the name of the image of a card, based on its suit and number
+     *
+     * @param card the card to get the image name of
+     * @return the name of the card's image, for example "ace_of_hearts"
+     */
+    static String imageName(Card card) {
+
+        String cardDef = "";
+
+        int number = card.getNumber();
+        if (number == 1)
+            cardDef += "ace_of_";
+        else if (number == 11)
+            cardDef += "jack_of_";
+        else if (number == 12)
+            cardDef += "queen_of_";
+        else if (number == 13)
+            cardDef += "king_of_";
+        else
+            cardDef += number + "_of_";
+
+        Suit mySuit = card.getSuit();
+        if (mySuit == Suit.SPADE)
+            cardDef += "spades";
+        if (mySuit == Suit.CLUB)
+            cardDef += "clubs";
+        if (mySuit == Suit.DIAMOND)
+            cardDef += "diamonds";
+        if (mySuit == Suit.HEART)
+            cardDef += "hearts";
+
+        return cardDef;
+    }
+
+    /**
+     * render looks at the variables screen Resolution, suit, and number. Based
+     * on those three variables, it draws the correct card image at the size of
+     * the screen resolution and stores it in the cache. Synchronized so a card
+     * is never rendered twice.
+     *
+     * @param card      the card to render the image of
+     * @param screenRes 0 if high resolution, 1 if low resolution
+     * @return An ImageIcon holding the card image
+     */
+    private static synchronized ImageIcon render(Card card, int screenRes) {
+        ImageIcon image = IMAGES.get(screenRes * 52 + card.getOrdinal());
+        if (image != null)
+            return image;
+
+        int width = screenRes == 1 ? 50 : 100;
+        int height = screenRes == 1 ? 100 : 200;
+        image = new ImageIcon(drawSized(source(imageName(card)), width, height));
+        IMAGES.set(screenRes * 52 + card.getOrdinal(), image);
+        return image;
+    }
+
+    /**
+     * Draws the image of a face down hand at the size of the screen resolution
+     * and stores it in the cache. Every card after the first adds half a card
+     * to the length of the image. The PNGs are already the high resolution
+     * size, the low resolution images are half as big.
+     *
+     * @param numCards  the number of cards left in the hand, 1-13
+     * @param sideways  true for the East and West players
+     * @param screenRes 0 if high resolution, 1 if low resolution
+     * @return An ImageIcon holding the hand image
+     */
+    private static synchronized ImageIcon renderBack(int numCards, boolean sideways, int screenRes) {
+        int index = backIndex(numCards, sideways, screenRes);
+        ImageIcon image = BACKS.get(index);
+        if (image != null)
+            return image;
+
+        int length = screenRes == 1 ? 25 + 25 * numCards : 50 + 50 * numCards;
+        int depth = screenRes == 1 ? 100 : 200;
+        BufferedImage source = source((sideways ? "CardBackSide" : "CardBack") + numCards);
+        if (sideways)
+            image = new ImageIcon(drawSized(source, depth, length));
+        else
+            image = new ImageIcon(drawSized(source, length, depth));
+        BACKS.set(index, image);
+        return image;
+    }
+
+    /**
+     * Returns the position of a face down hand image in BACKS.
+     *
+     * @param numCards  the number of cards left in the hand, 1-13
+     * @param sideways  true for the East and West players
+     * @param screenRes 0 if high resolution, 1 if low resolution
+     * @return the index of the image
+     */
+    private static int backIndex(int numCards, boolean sideways, int screenRes) {
+        return ((screenRes * 2) + (sideways ? 1 : 0)) * 14 + numCards;
+    }
+
+    /**
+     * Draws an image into a new image of the given size.
+     *
+     * @param source the image to draw, may be null if it could not be read
+     * @param width  the width of the new image
+     * @param height the height of the new image
+     * @return the sized image, left transparent if there was no source
+     */
+    private static BufferedImage drawSized(BufferedImage source, int width, int height) {
+        BufferedImage sized = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        if (source != null) {
+            Graphics2D g = sized.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+            g.dispose();
+        }
+        return sized;
+    }
+
+    /**
+     * Returns the full size image with a name, cut out of the atlas. The atlas
+     * is read the first time this is called. Only called from the render
+     * methods, which hold the lock.
+     *
+     * @param name the name of the image, for example "CardBack13"
+     * @return the image, or null if it could not be read
+     */
+    private static BufferedImage source(String name) {
+        if (atlasIndex == null)
+            readAtlas();
+        int[] place = atlasIndex.get(name);
+        if (atlas == null || place == null)
+            return read(FOLDER + name + ".png");
+        return atlas.getSubimage(place[0], place[1], place[2], place[3]);
+    }
+
+    /**
+     * Reads the atlas image and its index. Leaves the index empty if either
+     * is missing, so every image is read from its own PNG.
+     */
+    private static void readAtlas() {
+        atlasIndex = new HashMap<>();
+        InputStream in = CardImages.class.getResourceAsStream(FOLDER + AtlasPacker.ATLAS_INDEX);
+        if (in == null)
+            return;
+        try (BufferedReader index = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = index.readLine()) != null) {
+                String[] parts = line.trim().split(" ");
+                if (parts.length != 5)
+                    continue;
+                atlasIndex.put(parts[0], new int[]{Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                        Integer.parseInt(parts[3]), Integer.parseInt(parts[4])});
+            }
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace();
+            atlasIndex.clear();
+            return;
+        }
+        atlas = read(FOLDER + AtlasPacker.ATLAS_IMAGE);
+    }
+
+    /**
+     * Reads a PNG from the resources next to this class.
+     *
+     * @param path the path of the PNG, for example "PNG-cards-1.3/CardBack1.png"
+     * @return the decoded image, or null if it could not be read
+     */
+    private static BufferedImage read(String path) {
+        InputStream in = CardImages.class.getResourceAsStream(path);
+        if (in == null) {
+            System.err.println("Missing image: " + path);
+            return null;
+        }
+        try {
+            return ImageIO.read(in);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
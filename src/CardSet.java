@@ -0,0 +1,275 @@
+/**
+ * CardSet is a set of cards packed into a single long, one bit per card. The
+ * bit of a card is its ordinal (see Card.getOrdinal), so every suit occupies
+ * one block of 13 bits with the two in the lowest bit and the ace in the
+ * highest. Adding, removing and checking for a card are single bit operations,
+ * and iterating from the lowest set bit to the highest visits the cards in the
+ * same order a sorted hand is displayed in.
+ *
+ * The static methods work directly on the raw long so code that runs many
+ * times per move can use them without creating a CardSet.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class CardSet {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The number of cards in each suit, and the width of each suit's block of
+	 * bits.
+	 */
+	static final int SUIT_SIZE = 13;
+
+	/**
+	 * Mask of the 13 bits of the lowest suit block.
+	 */
+	static final long SUIT_BITS = (1L << SUIT_SIZE) - 1;
+
+	/**
+	 * Mask of all 52 cards in a deck.
+	 */
+	static final long ALL = (1L << 52) - 1;
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	private long bits; // one bit set for every card in the set.
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Creates a new empty card set.
+	 */
+	public CardSet() {
+		bits = 0L;
+	}
+
+	/**
+	 * Creates a new card set holding the cards of a bit mask.
+	 *
+	 * @param bits
+	 *            The mask of card ordinals in the set.
+	 */
+	public CardSet(long bits) {
+		this.bits = bits & ALL;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Adds a card to the set.
+	 *
+	 * @param card
+	 *            The card to be added.
+	 * @return true if the card was not already in the set, false otherwise
+	 */
+	public boolean add(Card card) {
+		long bit = bit(card.getOrdinal());
+		boolean added = (bits & bit) == 0;
+		bits |= bit;
+		return added;
+	}
+
+	/**
+	 * Removes a card from the set.
+	 *
+	 * @param card
+	 *            The card to be removed.
+	 * @return true if the card was in the set, false otherwise
+	 */
+	public boolean remove(Card card) {
+		long bit = bit(card.getOrdinal());
+		boolean removed = (bits & bit) != 0;
+		bits &= ~bit;
+		return removed;
+	}
+
+	/**
+	 * Checks to see if a certain card is in the set.
+	 *
+	 * @param card
+	 *            The card to check.
+	 * @return True if it is in the set, else false.
+	 */
+	public boolean contains(Card card) {
+		return (bits & bit(card.getOrdinal())) != 0;
+	}
+
+	/**
+	 * Removes every card from the set.
+	 */
+	public void clear() {
+		bits = 0L;
+	}
+
+	/**
+	 * Returns the number of cards in the set.
+	 *
+	 * @return the number of cards in the set, 0-52
+	 */
+	public int size() {
+		return Long.bitCount(bits);
+	}
+
+	/**
+	 * Returns true if there are no cards in the set.
+	 *
+	 * @return true if the set is empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return bits == 0L;
+	}
+
+	/**
+	 * Returns the number of cards of one suit in the set.
+	 *
+	 * @param suit
+	 *            The suit to count.
+	 * @return The number of cards of that suit, 0-13
+	 */
+	public int count(Suit suit) {
+		return Long.bitCount(bits & suitMask(suit));
+	}
+
+	/**
+	 * Returns the ordinal of the lowest card in the set, used to start an
+	 * ordered iteration together with next.
+	 *
+	 * @return the lowest ordinal in the set, or -1 if the set is empty
+	 */
+	public int first() {
+		return next(bits, 0);
+	}
+
+	/**
+	 * Returns the ordinal of the next card in the set at or above an ordinal.
+	 * Iterating with first and next does not allocate.
+	 *
+	 * @param from
+	 *            The ordinal to start looking from.
+	 * @return the next ordinal in the set, or -1 if there are none left
+	 */
+	public int next(int from) {
+		return next(bits, from);
+	}
+
+	/**
+	 * Returns the ordinal of the card at a position in the set, counting from
+	 * the lowest card.
+	 *
+	 * @param position
+	 *            The position in the set, 0 being the lowest card
+	 * @return the ordinal of the card at that position
+	 */
+	public int ordinalAt(int position) {
+		if (position < 0 || position >= size())
+			throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + size());
+		long rest = bits;
+		for (int i = 0; i < position; i++)
+			rest &= rest - 1;
+		return Long.numberOfTrailingZeros(rest);
+	}
+
+	/**
+	 * Returns the raw mask of the set.
+	 *
+	 * @return the bits of the cards in the set
+	 */
+	public long getBits() {
+		return bits;
+	}
+
+	/**
+	 * Replaces the contents of the set with the cards of a mask.
+	 *
+	 * @param bits
+	 *            The mask of card ordinals to hold.
+	 */
+	public void setBits(long bits) {
+		this.bits = bits & ALL;
+	}
+
+	/**
+	 * Compares two sets to see if they hold the same cards.
+	 *
+	 * @param o
+	 *            A card set to compare with this one.
+	 */
+	public boolean equals(Object o) {
+		if (o == null || getClass() != o.getClass())
+			return false;
+		return bits == ((CardSet) o).bits;
+	}
+
+	/**
+	 * Returns a hash code based on the cards in the set.
+	 */
+	public int hashCode() {
+		return Long.hashCode(bits);
+	}
+
+	/**
+	 * Prints out every card in the set, lowest first.
+	 */
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int o = first(); o >= 0; o = next(o + 1)) {
+			if (sb.length() > 1)
+				sb.append(", ");
+			sb.append(Card.of(o));
+		}
+		return sb.append("]").toString();
+	}
+
+	/*
+	 * STATIC METHODS
+	 */
+
+	/**
+	 * Returns the single bit for a card ordinal.
+	 *
+	 * @param ordinal
+	 *            The ordinal of the card, 0-51
+	 * @return a mask with only that card's bit set
+	 */
+	static long bit(int ordinal) {
+		return 1L << ordinal;
+	}
+
+	/**
+	 * Returns the mask of every card of one suit.
+	 *
+	 * @param suit
+	 *            The suit of the mask.
+	 * @return a mask with the 13 bits of that suit set
+	 */
+	static long suitMask(Suit suit) {
+		return SUIT_BITS << (Card.suitIndex(suit) * SUIT_SIZE);
+	}
+
+	/**
+	 * Returns the ordinal of the next set bit of a mask at or above an ordinal.
+	 *
+	 * @param bits
+	 *            The mask to search.
+	 * @param from
+	 *            The ordinal to start looking from, 0-63
+	 * @return the next ordinal in the mask, or -1 if there are none left
+	 */
+	static int next(long bits, int from) {
+		if (from >= 64)
+			return -1;
+		long rest = bits & (-1L << from);
+		return rest == 0 ? -1 : Long.numberOfTrailingZeros(rest);
+	}
+}
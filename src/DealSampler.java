@@ -0,0 +1,393 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * DealSampler guesses the hidden hands for a bot that plays by trying many
+ * deals (MonteCarloBot, IsmctsBot). Every deal it makes keeps to what the
+ * bot knows: the cards already played, the number of cards each seat has
+ * left, the suits a seat has shown it does not have, and any other limits
+ * on the number of cards of a suit a seat can hold, such as a guess from its
+ * bid. Every deal that keeps to them is equally likely.
+ *
+ * Dealing the cards at random and throwing away the deals that break a
+ * limit gets slower and slower as the hand goes on and more is known, so the
+ * sampler counts the deals instead. Going through the suits one at a time,
+ * it counts how many whole deals are left for each number of cards each seat
+ * still needs (see count). A deal is then made by choosing how many cards of
+ * each suit every seat gets, with a chance as large as the number of deals
+ * that follow, and dealing the cards of the suit at random in those numbers.
+ * Nothing is ever thrown away, so a deal takes the same time however much is
+ * known.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class DealSampler {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * Binomial coefficients, BINOMIAL[n][k] ways to choose k of n.
+	 */
+	private static final long[][] BINOMIAL = new long[CardSet.SUIT_SIZE + 1][CardSet.SUIT_SIZE + 1];
+
+	static {
+		for (int n = 0; n <= CardSet.SUIT_SIZE; n++) {
+			BINOMIAL[n][0] = 1;
+			for (int k = 1; k <= n; k++)
+				BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+		}
+	}
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	private final int seat; // the seat of the bot, whose hand is known.
+	private final long hand; // the bot's own cards.
+	private final long hidden; // the cards the bot has not seen.
+	private final int[] counts; // cards left in each seat's hand, by seat.
+	private final long[] known = new long[4]; // hidden cards known to be in each hand.
+	private final int[][] min = new int[4][4]; // fewest cards of each suit, by seat and suit index.
+	private final int[][] max = new int[4][4]; // most cards of each suit, by seat and suit index.
+
+	/**
+	 * The counts of deals, worked out by count. The cards still needed by the
+	 * seats are one number, the state, with stride[s] for each card of seat
+	 * s. For suit i and a state, splits holds the numbers of cards of the
+	 * suit each seat can get (4 bits a seat) and totals the running total of
+	 * the deals of suits i to 3 after each split, null until counted.
+	 */
+	private int[] need, stride;
+	private int[][] cards; // the hidden cards of each suit not known to be anywhere.
+	private int[][][] splits;
+	private long[][][] totals;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Creates a sampler that deals the hidden cards to the other seats.
+	 *
+	 * @param seat
+	 *            The seat of the bot, 0 South, 1 West, 2 North, 3 East
+	 * @param hand
+	 *            The bot's own cards.
+	 * @param hidden
+	 *            The cards the bot has not seen.
+	 * @param counts
+	 *            The number of cards each seat has left, by seat.
+	 */
+	public DealSampler(int seat, long hand, long hidden, int[] counts) {
+		int dealt = 0;
+		for (int s = 0; s < 4; s++) {
+			if (s != seat)
+				dealt += counts[s];
+		}
+		if (dealt != Long.bitCount(hidden))
+			throw new IllegalArgumentException(
+					"The other seats need " + dealt + " cards, there are " + Long.bitCount(hidden) + " hidden");
+		this.seat = seat;
+		this.hand = hand;
+		this.hidden = hidden;
+		this.counts = counts.clone();
+		for (int[] m : max)
+			Arrays.fill(m, CardSet.SUIT_SIZE);
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Creates a sampler for a bot from what its memory holds: the cards
+	 * played in earlier rounds and this one, the suits each seat has shown
+	 * out of and the cards a seat is known to hold.
+	 *
+	 * @param memory
+	 *            The memory of the bot's game.
+	 * @param seat
+	 *            The seat of the bot, 0 South, 1 West, 2 North, 3 East
+	 * @param hand
+	 *            The bot's own cards.
+	 * @param pile
+	 *            The ordinals of the cards played this round, in order.
+	 * @return the sampler
+	 */
+	public static DealSampler of(Memory memory, int seat, long hand, int[] pile) {
+		long seen = memory.getBits() | hand;
+		for (int card : pile)
+			seen |= CardSet.bit(card);
+		// the seats that already played this round have one card fewer
+		int leader = (seat - pile.length) & 3;
+		int[] counts = new int[4];
+		for (int s = 0; s < 4; s++)
+			counts[s] = Long.bitCount(hand) - (((s - leader) & 3) < pile.length ? 1 : 0);
+		DealSampler sampler = new DealSampler(seat, hand, CardSet.ALL & ~seen, counts);
+		for (int s = 0; s < 4; s++) {
+			if (s == seat)
+				continue;
+			for (Suit suit : Suit.values()) {
+				if (memory.isVoid(s, suit))
+					sampler.markVoid(s, suit);
+			}
+			sampler.addKnown(s, memory.getKnown(s));
+		}
+		return sampler;
+	}
+
+	/**
+	 * Keeps every card of a suit away from a seat.
+	 *
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @param suit
+	 *            The suit the seat has none of.
+	 */
+	public void markVoid(int seat, Suit suit) {
+		limitSuit(seat, suit, 0, 0);
+	}
+
+	/**
+	 * Limits the number of hidden cards of a suit a seat can be dealt, such
+	 * as at least a few spades for a seat that bid many tricks. The limits
+	 * only narrow the limits already set.
+	 *
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @param suit
+	 *            The suit to limit.
+	 * @param fewest
+	 *            The fewest cards of the suit the seat can have.
+	 * @param most
+	 *            The most cards of the suit the seat can have.
+	 */
+	public void limitSuit(int seat, Suit suit, int fewest, int most) {
+		int i = Card.suitIndex(suit);
+		min[seat][i] = Math.max(min[seat][i], fewest);
+		max[seat][i] = Math.min(max[seat][i], most);
+		totals = null;
+	}
+
+	/**
+	 * Puts hidden cards in a seat's hand in every deal, such as a card the
+	 * seat is known to hold.
+	 *
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @param cards
+	 *            The cards, only the hidden ones count.
+	 */
+	public void addKnown(int seat, long cards) {
+		if (seat == this.seat)
+			return;
+		cards &= hidden;
+		for (int s = 0; s < 4; s++)
+			cards &= ~known[s];
+		known[seat] |= cards;
+		totals = null;
+	}
+
+	/**
+	 * Returns the number of deals that keep to every limit, working out the
+	 * counts the deals are chosen by. Once it has been called, deal can be
+	 * called from several threads at once until the limits change.
+	 *
+	 * @return the number of deals, 0 if the limits can not all be kept
+	 */
+	public long count() {
+		if (totals == null)
+			prepare();
+		return start() < 0 ? 0 : ways(0, start());
+	}
+
+	/**
+	 * Deals the hidden cards to the other seats, every deal that keeps to the
+	 * limits equally likely.
+	 *
+	 * @param hands
+	 *            The array the four hands are dealt into, by seat.
+	 * @param buffer
+	 *            An array of at least CardSet.SUIT_SIZE ints the cards of a
+	 *            suit are shuffled in, owned by the caller so a deal
+	 *            allocates nothing.
+	 * @param random
+	 *            The random numbers of the deal.
+	 * @return false if no deal keeps to the limits, hands is then unchanged
+	 */
+	public boolean deal(long[] hands, int[] buffer, SplittableRandom random) {
+		long total = count();
+		if (total == 0)
+			return false;
+		for (int s = 0; s < 4; s++)
+			hands[s] = known[s];
+		hands[seat] = hand;
+		int state = start();
+		for (int i = 0; i < 4; i++) {
+			// the split of the suit, chosen by the number of deals after it
+			long[] cumulative = totals[i][state];
+			long r = random.nextLong(cumulative[cumulative.length - 1]);
+			int k = 0;
+			while (cumulative[k] <= r)
+				k++;
+			int split = splits[i][state][k];
+
+			// deal the cards of the suit at random in the numbers chosen
+			int n = cards[i].length;
+			System.arraycopy(cards[i], 0, buffer, 0, n);
+			int at = 0;
+			for (int s = 0; s < 4; s++) {
+				int a = split >>> (4 * s) & 0xF;
+				state -= a * stride[s];
+				for (int end = at + a; at < end; at++) {
+					int j = at + random.nextInt(n - at);
+					hands[s] |= CardSet.bit(buffer[j]);
+					buffer[j] = buffer[at];
+				}
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Sets up the counts for the current limits, none of them worked out yet.
+	 */
+	private void prepare() {
+		need = new int[4];
+		stride = new int[4];
+		int size = 1;
+		for (int s = 3; s >= 0; s--) {
+			need[s] = s == seat ? 0 : Math.max(-1, counts[s] - Long.bitCount(known[s]));
+			stride[s] = size;
+			size *= Math.max(need[s], 0) + 1;
+		}
+		long free = hidden;
+		for (int s = 0; s < 4; s++)
+			free &= ~known[s];
+		cards = new int[4][];
+		for (int i = 0; i < 4; i++) {
+			long suit = free & (CardSet.SUIT_BITS << (i * CardSet.SUIT_SIZE));
+			cards[i] = new int[Long.bitCount(suit)];
+			int n = 0;
+			for (long m = suit; m != 0; m &= m - 1)
+				cards[i][n++] = Long.numberOfTrailingZeros(m);
+		}
+		splits = new int[4][size][];
+		totals = new long[4][size][];
+	}
+
+	/**
+	 * Returns the state of the whole hidden deal, or -1 if a seat holds more
+	 * known cards than it has cards or breaks a limit with them.
+	 */
+	private int start() {
+		int state = 0;
+		for (int s = 0; s < 4; s++) {
+			if (need[s] < 0)
+				return -1;
+			for (int i = 0; i < 4; i++) {
+				int held = Long.bitCount(known[s] & (CardSet.SUIT_BITS << (i * CardSet.SUIT_SIZE)));
+				if (held > max[s][i])
+					return -1;
+			}
+			state += need[s] * stride[s];
+		}
+		return state;
+	}
+
+	/**
+	 * Returns the number of ways to deal the free cards of suits i to 3 when
+	 * the seats still need the cards of a state, counting it the first time.
+	 */
+	private long ways(int i, int state) {
+		if (i == 4)
+			return state == 0 ? 1 : 0;
+		if (totals[i][state] == null)
+			count(i, state);
+		long[] cumulative = totals[i][state];
+		return cumulative.length == 0 ? 0 : cumulative[cumulative.length - 1];
+	}
+
+	/**
+	 * Counts the deals from a state for each way to split the free cards of
+	 * suit i among the seats, keeping the splits that leave any deal with the
+	 * running total of their deals, so deal can choose one by its number.
+	 */
+	private void count(int i, int state) {
+		int h = cards[i].length;
+		int[] n = needs(state);
+		int[] lo = new int[4], hi = new int[4];
+		int[] found = new int[(h + 1) * (h + 1) * (h + 1)];
+		long[] running = new long[found.length];
+		int size = 0;
+		long w = 0;
+		if (bounds(i, n, lo, hi)) {
+			for (int a0 = lo[0]; a0 <= hi[0] && a0 <= h; a0++) {
+				for (int a1 = lo[1]; a1 <= hi[1] && a0 + a1 <= h; a1++) {
+					for (int a2 = lo[2]; a2 <= hi[2] && a0 + a1 + a2 <= h; a2++) {
+						int a3 = h - a0 - a1 - a2;
+						if (a3 < lo[3] || a3 > hi[3])
+							continue;
+						long rest = ways(i + 1,
+								state - a0 * stride[0] - a1 * stride[1] - a2 * stride[2] - a3 * stride[3]);
+						if (rest == 0)
+							continue;
+						w += ways(h, a0, a1, a2) * rest;
+						found[size] = a0 | a1 << 4 | a2 << 8 | a3 << 12;
+						running[size++] = w;
+					}
+				}
+			}
+		}
+		splits[i][state] = Arrays.copyOf(found, size);
+		totals[i][state] = Arrays.copyOf(running, size);
+	}
+
+	/**
+	 * Returns the cards each seat still needs in a state.
+	 */
+	private int[] needs(int state) {
+		int[] n = new int[4];
+		for (int s = 0; s < 4; s++)
+			n[s] = state / stride[s] % (need[s] + 1);
+		return n;
+	}
+
+	/**
+	 * Finds the fewest and most free cards of suit i each seat can get, from
+	 * its limits, the known cards it holds and the cards it still needs.
+	 *
+	 * @return false if a seat can not keep to its limits
+	 */
+	private boolean bounds(int i, int[] n, int[] lo, int[] hi) {
+		long suit = CardSet.SUIT_BITS << (i * CardSet.SUIT_SIZE);
+		for (int s = 0; s < 4; s++) {
+			int held = Long.bitCount(known[s] & suit);
+			lo[s] = Math.max(0, min[s][i] - held);
+			hi[s] = Math.min(n[s], max[s][i] - held);
+			if (s == seat) {
+				lo[s] = 0;
+				hi[s] = 0;
+			}
+			if (lo[s] > hi[s])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of ways to split h cards into hands of a0, a1, a2
+	 * and the rest.
+	 */
+	private static long ways(int h, int a0, int a1, int a2) {
+		return BINOMIAL[h][a0] * BINOMIAL[h - a0][a1] * BINOMIAL[h - a0 - a1][a2];
+	}
+}
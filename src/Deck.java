@@ -1,11 +1,16 @@
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.SplittableRandom;
 
 /**
  * Deck is 52 unique card objects, 13 in each of clubs, spades hearts, and
  * diamonds (no duplicates). It is able to deal and shuffle the deck. 1 is ace,
  * 13 is king.
- * 
+ *
+ * The order of the deck is kept as the 52 card ordinals in a byte array and
+ * shuffled in place, so shuffling and dealing the same deck again does not
+ * allocate anything. The hands are dealt as CardSet masks, 13 cards after
+ * another, and a deck shuffled by a random number generator with the same
+ * seed always deals the same hands.
+ *
  * @author Bob Laskowski
  * @author Peter Klein
  * @version 1.3
@@ -16,76 +21,193 @@ public class Deck {
 	 * INSTANCE VARIABLES
 	 */
 
-    private final ArrayList<Card> deck = new ArrayList<>(); // arraylist of
-    // 52 cards.
+    private final byte[] order = new byte[52]; // ordinals of the 52 cards, in
+    // the order they are dealt.
+    private final SplittableRandom random; // decides the order of the shuffle.
+    private int top; // index of the next card to be dealt.
 
 	/*
-	 * CONSTRUCTORS 
+	 * CONSTRUCTORS
 	 */
-	
+
 	/**
-	 * Deck constructor creates a new array list of 52 unique cards, just like a
+	 * Deck constructor creates a new deck of 52 unique cards, just like a
 	 * playing card deck, and shuffles them in a random order.
-	 * 
-	 * @param screenRes
-	 *            The screen resolution of the Cards in the deck.
 	 */
-	public Deck(int screenRes) {
+	public Deck() {
+		this(new SplittableRandom());
+	}
 
-		// SPADES
-		for (int i = 1; i <= 13; i++) {
-			deck.add(new Card(Suit.SPADE, i, screenRes));
-		}
-		// CLUBS
-		for (int i = 1; i <= 13; i++) {
-			deck.add(new Card(Suit.CLUB, i, screenRes));
-		}
-		// HEARTS
-		for (int i = 1; i <= 13; i++) {
-			deck.add(new Card(Suit.HEART, i, screenRes));
-		}
-		// DIAMONDS
-		for (int i = 1; i <= 13; i++) {
-			deck.add(new Card(Suit.DIAMOND, i, screenRes));
-		}
+	/**
+	 * Creates a new deck of 52 unique cards shuffled from a seed, so decks
+	 * made with the same seed deal the same hands.
+	 *
+	 * @param seed
+	 *            The seed of the shuffle.
+	 */
+	public Deck(long seed) {
+		this(new SplittableRandom(seed));
+	}
+
+	/**
+	 * Creates a new deck of 52 unique cards shuffled by a game's random number
+	 * generator, so games seeded the same are dealt the same cards.
+	 *
+	 * @param random
+	 *            The random number generator to shuffle with.
+	 */
+	public Deck(SplittableRandom random) {
+		this.random = random;
+		for (int i = 0; i < 52; i++)
+			order[i] = (byte) i;
 		shuffle();
 	}
-	
+
 	/*
 	 * PUBLIC METHODS
 	 */
 
 	/**
-	 * shuffles the order of the deck using Collection's shuffle method
+	 * Puts every card back in the deck and shuffles it with a Fisher-Yates
+	 * shuffle, swapping each position with a random one at or below it. Each
+	 * random long gives the random positions of two swaps.
 	 */
-    private void shuffle() {
-        Collections.shuffle(deck);
+    public void shuffle() {
+        for (int i = 51; i > 0; i -= 2) {
+            long r = random.nextLong();
+            swap(i, below(i + 1, (int) (r >>> 32)));
+            if (i > 1)
+                swap(i - 1, below(i, (int) r));
+        }
+        top = 0;
     }
 
 	/**
 	 * Prints out every card in the deck, used primarily for testing purposes
-	 * 
+	 *
 	 * @return Every card in the deck.
 	 */
 	public String toString() {
-		return deck.toString();
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = top; i < 52; i++) {
+			if (i > top)
+				sb.append(", ");
+			sb.append(Card.of(order[i]));
+		}
+		return sb.append("]").toString();
+	}
+
+	/**
+	 * Returns the number of cards that have not been dealt yet
+	 *
+	 * @return the number of cards left in the deck, 0-52
+	 */
+	public int size() {
+		return 52 - top;
 	}
 
 	/**
 	 * Creates a new hand and adds thirteen new cards to it, starting where the
-	 * index is.
-	 * 
+	 * index is. The cards are not removed from the array, the index just moves
+	 * past them, so dealing does not shift the rest of the deck.
+	 *
 	 * @return A new hand with thirteen cards in it
 	 */
     Hand dealHand() {
-        Hand myHand = new Hand();
-        int index = 0;
+        return new Hand(dealMask());
+    }
+
+	/**
+	 * Deals the next thirteen cards, or what is left if there are fewer, as a
+	 * mask of card ordinals.
+	 *
+	 * @return the mask of the cards dealt, see CardSet
+	 */
+	long dealMask() {
+		long mask = 0L;
+		int end = Math.min(top + 13, 52);
+		for (; top < end; top++)
+			mask |= CardSet.bit(order[top]);
+		return mask;
+	}
 
-		while (index < 13) {
-			myHand.add(deck.remove(0));
-			index++;
+	/**
+	 * Shuffles the deck and deals all 52 cards into four hands, writing the
+	 * mask of each hand into an array. Nothing is allocated, so a simulation
+	 * can deal millions of hands from one deck.
+	 *
+	 * Only the last 39 cards are shuffled: the order within a hand does not
+	 * matter, so once three hands are chosen the first hand is simply the 13
+	 * cards left. Each card is added to the mask of its hand as the shuffle
+	 * puts it in place, instead of reading the deck again afterwards.
+	 *
+	 * @param hands
+	 *            The array the four masks are written to, in the order the
+	 *            hands are dealt.
+	 */
+	void deal(long[] hands) {
+		byte[] order = this.order;
+		long rest = CardSet.ALL;
+		for (int h = 3; h > 0; h--) {
+			long mask = 0L;
+			for (int i = 13 * h + 12; i >= 13 * h; i -= 2) {
+				long r = random.nextLong();
+				int j = below(i + 1, (int) (r >>> 32));
+				byte card = order[j];
+				order[j] = order[i];
+				order[i] = card;
+				mask |= 1L << card;
+				if (i > 13 * h) {
+					j = below(i, (int) r);
+					card = order[j];
+					order[j] = order[i - 1];
+					order[i - 1] = card;
+					mask |= 1L << card;
+				}
+			}
+			hands[h] = mask;
+			rest &= ~mask;
 		}
+		hands[0] = rest;
+		top = 52;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
 
-		return myHand;
+	/**
+	 * Swaps two cards of the deck.
+	 *
+	 * @param i
+	 *            The position of the first card.
+	 * @param j
+	 *            The position of the second card.
+	 */
+	private void swap(int i, int j) {
+		byte swap = order[i];
+		order[i] = order[j];
+		order[j] = swap;
+	}
+
+	/**
+	 * Turns 32 random bits into a random number below a bound, every number
+	 * being equally likely. Multiplies instead of dividing, and only draws
+	 * new bits in the rare case the first ones would favour some numbers.
+	 *
+	 * @param bound
+	 *            The number the result is below, 1-52
+	 * @param bits
+	 *            32 random bits.
+	 * @return a random number from 0 to bound - 1
+	 */
+	private int below(int bound, int bits) {
+		long m = (bits & 0xFFFFFFFFL) * bound;
+		if ((m & 0xFFFFFFFFL) < bound) {
+			long threshold = (1L << 32) % bound;
+			while ((m & 0xFFFFFFFFL) < threshold)
+				m = (random.nextInt() & 0xFFFFFFFFL) * bound;
+		}
+		return (int) (m >>> 32);
 	}
 }
@@ -0,0 +1,544 @@
+import java.util.Arrays;
+
+/**
+ * DoubleDummy works out how many tricks each team takes when all four hands
+ * are known and every player plays perfectly. It searches every line of play
+ * with alpha-beta search under the same rules as the game: cards must follow
+ * the suit led (see Rules), spades can not be led until they are broken, and
+ * the winner of a round is found by TrickResolver.
+ *
+ * Every position at the start of a round is stored in a TranspositionTable
+ * with the bounds the search found for it, so positions reached again through
+ * a different order of the same cards are not searched twice. The key of a
+ * position ranks the cards left only against each other (see
+ * Zobrist.hashRelative), so positions that only differ in cards already
+ * played share an entry.
+ *
+ * A solver keeps its table between calls, so solving many positions of the
+ * same hand is faster than solving them with new solvers. A solver is not
+ * thread safe, every thread needs its own, but solvers on different threads
+ * can share one table and use what the others found.
+ *
+ * A solver given an EndgameTablebase looks up the last rounds in it instead
+ * of searching them.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class DoubleDummy {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The megabytes of the table of a solver made without one.
+	 */
+	private static final int TABLE_MEGABYTES = 16;
+
+	/**
+	 * Mask of the 13 spades.
+	 */
+	private static final long SPADES = CardSet.suitMask(Suit.SPADE);
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	private final long[] hands = new long[4]; // cards left in each seat's hand.
+	private final int[] trick = new int[4]; // ordinals of this round's cards.
+	private int trickSize; // cards played this round.
+	private int leader; // seat that led this round.
+	private int turn; // seat whose turn it is to play.
+	private boolean spadesBroken; // true once a spade has been played.
+	private long nodes; // positions searched since the solver was made.
+	private long deadline = Long.MAX_VALUE; // System.nanoTime the search stops at.
+
+	/**
+	 * The moves of each depth of the search, so searching does not allocate.
+	 */
+	private final int[][] moves = new int[53][13];
+	private final int[][] weights = new int[53][13];
+
+	/**
+	 * The positions at the start of a round, with the lowest and highest
+	 * number of tricks North and South can take from them and the best card
+	 * found to lead.
+	 */
+	private final TranspositionTable table;
+
+	private EndgameTablebase endgames; // the last rounds, or null to search them.
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Creates a solver with its own empty table.
+	 */
+	public DoubleDummy() {
+		this(new TranspositionTable(TABLE_MEGABYTES));
+	}
+
+	/**
+	 * Creates a solver that uses a table, which other solvers may share.
+	 *
+	 * @param table
+	 *            The table of positions.
+	 */
+	public DoubleDummy(TranspositionTable table) {
+		this.table = table;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Sets the table the last rounds are looked up in.
+	 *
+	 * @param endgames
+	 *            The table, or null to search every round.
+	 */
+	public void setTablebase(EndgameTablebase endgames) {
+		this.endgames = endgames;
+	}
+
+	/**
+	 * Forgets every position stored in the table.
+	 */
+	public void clear() {
+		table.clear();
+	}
+
+	/**
+	 * Solves a position at the start of a round.
+	 *
+	 * @param hands
+	 *            The masks of the cards left in each seat's hand, by seat, all
+	 *            the same size
+	 * @param leader
+	 *            The seat that leads the next round.
+	 * @param spadesBroken
+	 *            true if a spade has already been played this hand
+	 * @return the number of the remaining tricks North and South take, the
+	 *         rest are taken by East and West
+	 */
+	public int solve(long[] hands, int leader, boolean spadesBroken) {
+		return solve(hands, new int[0], leader, spadesBroken);
+	}
+
+	/**
+	 * Solves a position in the middle of a round.
+	 *
+	 * @param hands
+	 *            The masks of the cards left in each seat's hand, by seat,
+	 *            without the cards already played this round
+	 * @param pile
+	 *            The ordinals of the cards already played this round, in the
+	 *            order they were played
+	 * @param leader
+	 *            The seat that led this round.
+	 * @param spadesBroken
+	 *            true if a spade has already been played this hand, including
+	 *            in this round
+	 * @return the number of tricks North and South take from this round on,
+	 *         including this one
+	 */
+	public int solve(long[] hands, int[] pile, int leader, boolean spadesBroken) {
+		setUp(hands, pile, leader, spadesBroken);
+		return solveWindowed(0);
+	}
+
+	/**
+	 * Works out how many tricks the team of the seat to play takes after each
+	 * card it can play, including the current round.
+	 *
+	 * @param hands
+	 *            The masks of the cards left in each seat's hand, by seat,
+	 *            without the cards already played this round
+	 * @param pile
+	 *            The ordinals of the cards already played this round, in the
+	 *            order they were played
+	 * @param leader
+	 *            The seat that led this round.
+	 * @param spadesBroken
+	 *            true if a spade has already been played this hand, including
+	 *            in this round
+	 * @return the tricks taken after each card, indexed by card ordinal, -1
+	 *         for the cards that can not be played
+	 */
+	public int[] scoreMoves(long[] hands, int[] pile, int leader, boolean spadesBroken) {
+		return scoreMoves(hands, pile, leader, spadesBroken, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Works out how many tricks the team of the seat to play takes after each
+	 * card it can play, unless it takes past a deadline.
+	 *
+	 * @param hands
+	 *            The masks of the cards left in each seat's hand, by seat,
+	 *            without the cards already played this round
+	 * @param pile
+	 *            The ordinals of the cards already played this round, in the
+	 *            order they were played
+	 * @param leader
+	 *            The seat that led this round.
+	 * @param spadesBroken
+	 *            true if a spade has already been played this hand, including
+	 *            in this round
+	 * @param deadline
+	 *            The System.nanoTime to give up at.
+	 * @return the tricks taken after each card, indexed by card ordinal, -1
+	 *         for the cards that can not be played, or null if the deadline
+	 *         passed first
+	 */
+	public int[] scoreMoves(long[] hands, int[] pile, int leader, boolean spadesBroken, long deadline) {
+		this.deadline = deadline;
+		try {
+			return scoreAll(hands, pile, leader, spadesBroken);
+		} catch (Timeout e) {
+			// nothing half searched was stored, the table is still right
+			return null;
+		} finally {
+			this.deadline = Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Returns the number of positions searched since the solver was made.
+	 *
+	 * @return the number of positions searched
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Returns the table of positions of the solver.
+	 *
+	 * @return the table
+	 */
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Scores every card the seat to play can play, see scoreMoves.
+	 */
+	private int[] scoreAll(long[] hands, int[] pile, int leader, boolean spadesBroken) {
+		setUp(hands, pile, leader, spadesBroken);
+		int seat = turn;
+		int total = Long.bitCount(allCards()) / 4 + (trickSize > 0 ? 1 : 0);
+		int[] scores = new int[52];
+		Arrays.fill(scores, -1);
+		long legal = legalMoves();
+		long distinct = MoveGenerator.distinct(legal, gone());
+		int previous = -1;
+		for (long m = legal; m != 0; m &= m - 1) {
+			int card = Long.numberOfTrailingZeros(m);
+			if ((distinct & CardSet.bit(card)) == 0) {
+				// plays the same as the next lower card of the suit
+				scores[card] = scores[previous];
+				previous = card;
+				continue;
+			}
+			previous = card;
+			setUp(hands, pile, leader, spadesBroken);
+			int ns = play(card);
+			ns += solveWindowed(1);
+			scores[card] = (seat & 1) == 0 ? ns : total - ns;
+		}
+		return scores;
+	}
+	/**
+	 * Copies a position into the solver.
+	 */
+	private void setUp(long[] hands, int[] pile, int leader, boolean spadesBroken) {
+		if (pile.length > 3)
+			throw new IllegalArgumentException("A round in progress has at most 3 cards");
+		System.arraycopy(hands, 0, this.hands, 0, 4);
+		for (int i = 0; i < pile.length; i++)
+			trick[i] = pile[i];
+		trickSize = pile.length;
+		this.leader = leader;
+		turn = (leader + trickSize) & 3;
+		this.spadesBroken = spadesBroken;
+		for (int i = 0; i < pile.length; i++)
+			this.spadesBroken |= (CardSet.bit(pile[i]) & SPADES) != 0;
+		int cards = Long.bitCount(allCards());
+		if ((cards + trickSize) % 4 != 0)
+			throw new IllegalArgumentException("The hands do not hold the same number of cards");
+	}
+
+	/**
+	 * Returns every card left in any hand.
+	 */
+	private long allCards() {
+		return hands[0] | hands[1] | hands[2] | hands[3];
+	}
+
+	/**
+	 * Returns the cards the seat to play is allowed to play.
+	 */
+	private long legalMoves() {
+		int led = trickSize == 0 ? Rules.NO_LEAD : trick[0] / CardSet.SUIT_SIZE;
+		return Rules.legalMoves(hands[turn], led, spadesBroken);
+	}
+
+	/**
+	 * Finds the exact value of the position with searches that only ask if
+	 * North and South can take at least some number of tricks. Such narrow
+	 * searches cut off far more lines than one search for the exact value, and
+	 * the table carries what each one learned into the next.
+	 *
+	 * @param depth
+	 *            The number of cards played since the search started.
+	 * @return the tricks North and South take from here on
+	 */
+	private int solveWindowed(int depth) {
+		int lo = 0;
+		int hi = (Long.bitCount(allCards()) + trickSize + 3) / 4;
+		int guess = hi / 2;
+		while (lo < hi) {
+			int target = guess == lo ? guess + 1 : guess;
+			guess = search(target - 1, target, depth);
+			if (guess < target)
+				hi = guess;
+			else
+				lo = guess;
+		}
+		return lo;
+	}
+
+	/**
+	 * Searches the position for the number of tricks North and South take from
+	 * here on, including the round in progress.
+	 *
+	 * @param alpha
+	 *            North and South are already sure of at least this many.
+	 * @param beta
+	 *            East and West can already hold North and South to this many.
+	 * @param depth
+	 *            The number of cards played since the search started.
+	 * @return the tricks North and South take, exact if between alpha and
+	 *         beta, otherwise a bound on the same side
+	 */
+	private int search(int alpha, int beta, int depth) {
+		if ((++nodes & 0xFFF) == 0 && System.nanoTime() - deadline > 0)
+			throw Timeout.INSTANCE;
+		int hint = -1;
+		long key = 0;
+		int alphaIn = alpha, betaIn = beta;
+		if (trickSize == 0) {
+			int left = Long.bitCount(allCards()) / 4;
+			if (left == 0 || beta <= 0)
+				return 0;
+			if (alpha >= left)
+				return left;
+			if (endgames != null && left <= endgames.getTricks())
+				return endgames.solve(hands, leader, spadesBroken);
+			int sureNS = topSpades(0), sureEW = topSpades(1);
+			if ((leader & 1) == 0)
+				sureNS = Math.max(sureNS, quickTricks());
+			else
+				sureEW = Math.max(sureEW, quickTricks());
+			if (sureNS >= beta)
+				return sureNS;
+			if (left - sureEW <= alpha)
+				return left - sureEW;
+			key = Zobrist.hashRelative(hands, leader, spadesBroken);
+			long data = table.probe(key);
+			if (data != TranspositionTable.MISS) {
+				int lo = TranspositionTable.lower(data), hi = TranspositionTable.upper(data);
+				if (lo >= beta || lo == hi)
+					return lo;
+				if (hi <= alpha)
+					return hi;
+				alpha = Math.max(alpha, lo);
+				beta = Math.min(beta, hi);
+				hint = TranspositionTable.move(data);
+			}
+		}
+
+		// what play changes, put back after every move
+		int seat = turn, size = trickSize, led = leader;
+		int t0 = trick[0], t1 = trick[1], t2 = trick[2];
+		boolean broken = spadesBroken;
+
+		boolean northSouth = (seat & 1) == 0;
+		int count = orderMoves(moves[depth], weights[depth], hint);
+		int best = northSouth ? -1 : 14;
+		int bestCard = -1;
+		for (int i = 0; i < count; i++) {
+			int card = moves[depth][i];
+			int won = play(card);
+			int value = won + search(alpha - won, beta - won, depth + 1);
+			hands[seat] |= CardSet.bit(card);
+			turn = seat;
+			trickSize = size;
+			leader = led;
+			trick[0] = t0;
+			trick[1] = t1;
+			trick[2] = t2;
+			spadesBroken = broken;
+			if (northSouth ? value > best : value < best) {
+				best = value;
+				bestCard = card;
+			}
+			if (northSouth)
+				alpha = Math.max(alpha, best);
+			else
+				beta = Math.min(beta, best);
+			if (alpha >= beta)
+				break;
+		}
+
+		if (size == 0) {
+			// the bounds of an earlier search of the position still hold
+			long data = table.probe(key);
+			int lo = data != TranspositionTable.MISS ? TranspositionTable.lower(data) : 0;
+			int hi = data != TranspositionTable.MISS ? TranspositionTable.upper(data) : 13;
+			if (best <= alphaIn)
+				hi = Math.min(hi, best);
+			else if (best >= betaIn)
+				lo = Math.max(lo, best);
+			else
+				lo = hi = best;
+			table.store(key, lo, hi, bestCard, Long.bitCount(allCards()) / 4);
+		}
+		return best;
+	}
+
+	/**
+	 * Plays a card for the seat whose turn it is. The search takes the card
+	 * back itself by restoring what it saved before the move.
+	 *
+	 * @param card
+	 *            The ordinal of the card.
+	 * @return 1 if the card finished a round won by North or South, else 0
+	 */
+	private int play(int card) {
+		hands[turn] &= ~CardSet.bit(card);
+		trick[trickSize++] = card;
+		if ((CardSet.bit(card) & SPADES) != 0)
+			spadesBroken = true;
+		if (trickSize < 4) {
+			turn = (turn + 1) & 3;
+			return 0;
+		}
+		int winner = TrickResolver.winner(trick[0], trick[1], trick[2], trick[3], leader);
+		trickSize = 0;
+		leader = turn = winner;
+		return (winner & 1) == 0 ? 1 : 0;
+	}
+
+	/**
+	 * Fills an array with the distinct cards the seat to play can play, most
+	 * promising first, since alpha-beta search cuts off the most lines when
+	 * the best card is tried first (see MoveGenerator).
+	 *
+	 * @param out
+	 *            The array to fill.
+	 * @param weights
+	 *            An array for the weights of the cards.
+	 * @param hint
+	 *            A card to try first if it can be played, or -1
+	 * @return the number of moves
+	 */
+	private int orderMoves(int[] out, int[] weights, int hint) {
+		long moves = MoveGenerator.distinct(legalMoves(), gone());
+		return MoveGenerator.order(moves, hands, trick, trickSize, leader, hint, out, weights);
+	}
+
+	/**
+	 * Counts the tricks a team is sure to win with its top spades. When the
+	 * highest spades left all belong to one team, every one of them wins the
+	 * round it is played in, and a player plays them in different rounds, so
+	 * the team wins at least as many rounds as either partner has of them.
+	 *
+	 * @param team
+	 *            0 for North and South, 1 for East and West
+	 * @return the tricks the team is sure to win
+	 */
+	private int topSpades(int team) {
+		long spades = allCards() & SPADES;
+		long ours = (hands[team] | hands[team + 2]) & SPADES;
+		// the top spades are the ones above the highest spade of the other team
+		long theirs = spades & ~ours;
+		long top = theirs == 0 ? ours : ours & ~((Long.highestOneBit(theirs) << 1) - 1);
+		return Math.max(Long.bitCount(top & hands[team]), Long.bitCount(top & hands[team + 2]));
+	}
+
+	/**
+	 * Counts the tricks the leader is sure to win by leading the highest cards
+	 * left in suits, one after another. A run of the highest cards of a suit
+	 * in the leader's hand wins as many rounds as the opponents can follow
+	 * the suit, after that an opponent with spades can trump it. Spades are
+	 * only led this way once they are broken.
+	 *
+	 * @return the tricks the leader's team is sure to win
+	 */
+	private int quickTricks() {
+		long all = allCards();
+		long mine = hands[leader];
+		long left = hands[(leader + 1) & 3], right = hands[(leader + 3) & 3];
+		boolean leftTrumps = (left & SPADES) != 0, rightTrumps = (right & SPADES) != 0;
+		int tricks = 0;
+		for (int suit = 0; suit < 4; suit++) {
+			long mask = CardSet.SUIT_BITS << (suit * CardSet.SUIT_SIZE);
+			long live = all & mask;
+			long others = live & ~mine;
+			long top = others == 0 ? mine & mask : mine & mask & ~((Long.highestOneBit(others) << 1) - 1);
+			int run = Long.bitCount(top);
+			if (run == 0)
+				continue;
+			if (mask == SPADES) {
+				if (spadesBroken)
+					tricks += run;
+				continue;
+			}
+			if (leftTrumps)
+				run = Math.min(run, Long.bitCount(left & mask));
+			if (rightTrumps)
+				run = Math.min(run, Long.bitCount(right & mask));
+			tricks += run;
+		}
+		return tricks;
+	}
+
+	/**
+	 * Returns the cards played in earlier rounds, every card not in a hand or
+	 * in this round.
+	 */
+	private long gone() {
+		long live = allCards();
+		for (int i = 0; i < trickSize; i++)
+			live |= CardSet.bit(trick[i]);
+		return CardSet.ALL & ~live;
+	}
+
+	/*
+	 * INNER CLASSES
+	 */
+
+	/**
+	 * Thrown inside the search when the deadline has passed, to leave every
+	 * level of it at once without storing anything.
+	 */
+	private static class Timeout extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final Timeout INSTANCE = new Timeout();
+
+		private Timeout() {
+			super(null, null, false, false);
+		}
+	}
+}
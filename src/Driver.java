@@ -1,12 +1,13 @@
 import java.util.ArrayList;
 
 /**
- * Driver helps run the game, but the primary running of the game takes place in
- * GUI. Driver controls the memory object for the bots, which stores all cards
- * that have been played. It also defines the Players, whether they are Human or
- * Bot based on the selections in the Welcome GUI. Additionally, it has a method
- * to determine the winner of each round that is called from GUI. A new driver
- * object is made in GUI at the start of each hand.
+ * Driver helps run the game, but the rules of a hand are run by SpadesEngine.
+ * Driver deals the cards and adds every round to the memory of the game's
+ * context, which stores all cards that have been played. It also defines the
+ * Players, whether they are Human or Bot based on the seats of the context.
+ * Additionally, it has a method to determine the winner of each round that is
+ * called from the engine. A new driver object is made in GUI at the start of
+ * each hand.
  * 
  * @author Bob Laskowski
  * @author Peter Klein
@@ -22,26 +23,29 @@ public class Driver {
     public Player[] players; // number of players in total.
     String[] playerAry; // number of players(bot or human).
     public Deck deck; // the deck to be used for the game.
-	public static Memory memory; // the memory to be used for the game.
+	private final GameContext context; // the seats, memory and random numbers of the game.
 
 	/*
 	 * CONSTRUCTORS
 	 */
 
 	/**
-	 * Creates all the players, deck and memory and passes it into the game.
+	 * Creates all the players and the deck for the seats of a game, and clears
+	 * the memory of the game.
 	 * 
-	 * @param screenRes
-	 *            the screen resolution.
+	 * @param context
+	 *            the seats, memory and random numbers of the game.
 	 */
-	public Driver(int screenRes) {
-		deck = new Deck(screenRes);
-		memory = new Memory();
-		playerAry = WelcomeGUI.getPlayers();
+	public Driver(GameContext context) {
+		this.context = context;
+		context.newHand();
+		deck = new Deck(context.getRandom());
+		playerAry = new String[4];
 		players = new Player[4];
 		for (int i = 0; i < playerAry.length; i++) {
-			if (playerAry[i].equals("Bot"))
-				players[i] = new Bot();
+			playerAry[i] = context.getSeat(i);
+			if (context.isBot(i))
+				players[i] = context.newBot(i);
 			else
 				players[i] = new Human();
 		}
@@ -49,6 +53,24 @@ public class Driver {
 
 	}
 
+	/**
+	 * Shuffles the deck again and clears the memory, used before every hand
+	 * after the first
+	 */
+	void newHand() {
+		deck.shuffle();
+		context.newHand();
+	}
+
+	/**
+	 * Returns the context of the game this driver deals for.
+	 * 
+	 * @return the seats, memory and random numbers of the game
+	 */
+	public GameContext getContext() {
+		return context;
+	}
+
 	/**
 	 * Deals hand to every player from the deck
 	 */
@@ -67,34 +89,12 @@ public class Driver {
 	 * @return the card that won that round.
 	 */
     Card determineWinner(ArrayList<Card> c) {
-        Card card0 = c.get(0);
-        Card card1 = c.get(1);
-		Card card2 = c.get(2);
-		Card card3 = c.get(3);
-
-		Card highCard = null;
-
-		// find the highest card, if you only have spades and one other suit.
-		if (Card.compareTo2(card0, card1) == 1) {
-			highCard = new Card(card0.getSuit(), card0.getNumber());
-		} else {
-			if (card1.getSuit() == Suit.SPADE || card1.getSuit() == card0.getSuit()) {
-				highCard = new Card(card1.getSuit(), card1.getNumber());
-			}
-		}
-
-		if (Card.compareTo2(highCard, card2) == -1) {
-			if (card2.getSuit() == Suit.SPADE || card2.getSuit() == card0.getSuit()) {
-				highCard = new Card(card2.getSuit(), card2.getNumber());
-			}
-		}
-		if (Card.compareTo2(highCard, card3) == -1) {
-			if (card3.getSuit() == Suit.SPADE || card3.getSuit() == card0.getSuit()) {
-				highCard = new Card(card3.getSuit(), card3.getNumber());
-			}
-		}
+		// find the highest card with the table of card strengths
+		Card highCard = c.get(TrickResolver.winningPosition(c.get(0).getOrdinal(), c.get(1).getOrdinal(),
+				c.get(2).getOrdinal(), c.get(3).getOrdinal()));
 
 		// ad all cards to memory
+		Memory memory = context.getMemory();
 		memory.add(c.get(0));
 		memory.add(c.get(1));
 		memory.add(c.get(2));
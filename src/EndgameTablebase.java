@@ -0,0 +1,510 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * EndgameTablebase holds the result of every position at the start of a round
+ * with 3 or fewer rounds left, worked out ahead of time, so a solver or bot
+ * looks the last rounds up instead of searching them again and again.
+ *
+ * Positions are stored in a normal form so that positions that play the same
+ * share one entry:
+ *
+ * The seats are turned so the leader is seat 0, the result is the number of
+ * tricks the leader's team takes. Only the order of the cards left in a suit
+ * matters, not which cards were played, so each suit is stored as the seats
+ * holding its cards from the highest to the lowest. Hearts, clubs and
+ * diamonds play the same, so they are sorted with the longest first. Each
+ * entry is 2 bits, so the table for 3 rounds is under 20 megabytes.
+ *
+ * The file is made by running this class:
+ *
+ * java EndgameTablebase [file] [threads]
+ *
+ * which solves the positions with 1 round left, then those with 2 rounds left
+ * using the first table, then those with 3. The game maps the file into
+ * memory. 4 rounds would need about 10 billion entries, too many for a file
+ * the game can map.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class EndgameTablebase {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The file the game looks for in the folder it is run from.
+	 */
+	public static final String DEFAULT_FILE = "endgame.dat";
+
+	/**
+	 * The most rounds left in a position of the table.
+	 */
+	public static final int MAX_TRICKS = 3;
+
+	/**
+	 * The first four bytes of a table file, "SEND", and the version of the
+	 * file layout.
+	 */
+	private static final int MAGIC = 0x53454E44, VERSION = 1;
+
+	/**
+	 * The blocks of the three side suits in the order they are stored, see
+	 * Card.suitIndex, and the block of spades.
+	 */
+	private static final int[] SIDE_SUITS = { Card.suitIndex(Suit.HEART), Card.suitIndex(Suit.CLUB),
+			Card.suitIndex(Suit.DIAMOND) };
+	private static final int SPADES = Card.suitIndex(Suit.SPADE);
+
+	/**
+	 * Factorials up to the most cards in a table position.
+	 */
+	private static final long[] FACTORIAL = new long[4 * MAX_TRICKS + 1];
+
+	/**
+	 * For each number of rounds left, the number of every set of suit
+	 * lengths (side suits longest first, then spades), indexed by the lengths
+	 * of the three side suits, -1 if they do not fit.
+	 */
+	private static final int[][][][] LENGTHS = new int[MAX_TRICKS + 1][][][];
+
+	/**
+	 * For each number of rounds left, the lengths of the suits of each number
+	 * from LENGTHS, the number of ways to seat the cards and the number of
+	 * entries.
+	 */
+	private static final int[][][] SUIT_LENGTHS = new int[MAX_TRICKS + 1][][];
+	private static final long[] ARRANGEMENTS = new long[MAX_TRICKS + 1];
+	private static final long[] ENTRIES = new long[MAX_TRICKS + 1];
+
+	static {
+		FACTORIAL[0] = 1;
+		for (int i = 1; i < FACTORIAL.length; i++)
+			FACTORIAL[i] = FACTORIAL[i - 1] * i;
+		for (int k = 0; k <= MAX_TRICKS; k++) {
+			int cards = 4 * k;
+			LENGTHS[k] = new int[cards + 1][cards + 1][cards + 1];
+			ArrayList<int[]> lengths = new ArrayList<>();
+			for (int a = 0; a <= cards; a++) {
+				for (int b = 0; b <= cards; b++) {
+					for (int c = 0; c <= cards; c++) {
+						LENGTHS[k][a][b][c] = -1;
+						if (a >= b && b >= c && a + b + c <= cards) {
+							LENGTHS[k][a][b][c] = lengths.size();
+							lengths.add(new int[] { a, b, c, cards - a - b - c });
+						}
+					}
+				}
+			}
+			SUIT_LENGTHS[k] = lengths.toArray(new int[0][]);
+			ARRANGEMENTS[k] = FACTORIAL[cards] / (FACTORIAL[k] * FACTORIAL[k] * FACTORIAL[k] * FACTORIAL[k]);
+			ENTRIES[k] = SUIT_LENGTHS[k].length * ARRANGEMENTS[k] * 2;
+		}
+	}
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	/**
+	 * The entries for each number of rounds left, four to a byte.
+	 */
+	private final ByteBuffer[] levels;
+	private final int tricks; // the most rounds left in the table.
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Creates a table over the entries of each number of rounds left.
+	 *
+	 * @param levels
+	 *            The entries, index 0 unused.
+	 */
+	private EndgameTablebase(ByteBuffer[] levels) {
+		this.levels = levels;
+		this.tricks = levels.length - 1;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Maps a table file into memory.
+	 *
+	 * @param file
+	 *            The file made by main.
+	 * @return the table
+	 * @throws IOException
+	 *             if the file can not be read or is not a table
+	 */
+	public static EndgameTablebase load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.BIG_ENDIAN);
+			if (buffer.capacity() < 12 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+				throw new IOException("Not an endgame table of version " + VERSION);
+			int tricks = buffer.getInt(8);
+			if (tricks < 1 || tricks > MAX_TRICKS)
+				throw new IOException("An endgame table can not have " + tricks + " rounds");
+			ByteBuffer[] levels = new ByteBuffer[tricks + 1];
+			int at = 12;
+			for (int k = 1; k <= tricks; k++) {
+				int bytes = (int) ((ENTRIES[k] + 3) / 4);
+				if (at + bytes > buffer.capacity())
+					throw new IOException("The endgame table is cut short");
+				levels[k] = buffer.slice(at, bytes);
+				at += bytes;
+			}
+			return new EndgameTablebase(levels);
+		}
+	}
+
+	/**
+	 * Maps DEFAULT_FILE into memory if it is there.
+	 *
+	 * @return the table, or null if there is no readable table file
+	 */
+	public static EndgameTablebase loadDefault() {
+		Path file = Paths.get(DEFAULT_FILE);
+		if (!Files.isReadable(file))
+			return null;
+		try {
+			return load(file);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the most rounds left in a position of the table.
+	 *
+	 * @return the number of rounds, 1 to MAX_TRICKS
+	 */
+	public int getTricks() {
+		return tricks;
+	}
+
+	/**
+	 * Looks up a position at the start of a round.
+	 *
+	 * @param hands
+	 *            The masks of the cards left in each seat's hand, by seat, all
+	 *            the same size and at most getTricks cards
+	 * @param leader
+	 *            The seat that leads the next round.
+	 * @param spadesBroken
+	 *            true if a spade has already been played this hand
+	 * @return the number of the remaining tricks North and South take
+	 */
+	public int solve(long[] hands, int leader, boolean spadesBroken) {
+		int k = Long.bitCount(hands[0] | hands[1] | hands[2] | hands[3]) / 4;
+		if (k > tricks)
+			throw new IllegalArgumentException("The table only has positions with " + tricks + " rounds left");
+		if (k == 0)
+			return 0;
+		int value = get(levels[k], index(hands, leader, k, spadesBroken));
+		return (leader & 1) == 0 ? value : k - value;
+	}
+
+	/**
+	 * Solves every position and writes the table file.
+	 *
+	 * @param args
+	 *            The file (DEFAULT_FILE if none is given) and the number of
+	 *            threads (every core if none is given).
+	 * @throws IOException
+	 *             if the file can not be written
+	 */
+	public static void main(String[] args) throws IOException {
+		Path file = Paths.get(args.length > 0 ? args[0] : DEFAULT_FILE);
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		long start = System.nanoTime();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		ByteBuffer[] levels = new ByteBuffer[MAX_TRICKS + 1];
+		for (int k = 1; k <= MAX_TRICKS; k++) {
+			levels[k] = ByteBuffer.allocate((int) ((ENTRIES[k] + 3) / 4));
+			EndgameTablebase lower = new EndgameTablebase(Arrays.copyOf(levels, k));
+			// every thread fills whole bytes, so no byte is written by two
+			long bytes = levels[k].capacity();
+			ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				long first = bytes * t / threads * 4, end = Math.min(bytes * (t + 1) / threads * 4, ENTRIES[k]);
+				ByteBuffer level = levels[k];
+				int tricks = k;
+				tasks.add(pool.submit(() -> lower.fill(level, tricks, first, end)));
+			}
+			for (ForkJoinTask<?> task : tasks)
+				task.join();
+			System.out.printf("%d rounds: %d entries, %.1f s%n", k, ENTRIES[k], (System.nanoTime() - start) / 1e9);
+		}
+		pool.shutdown();
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.BIG_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(MAX_TRICKS).flip();
+			channel.write(header);
+			for (int k = 1; k <= MAX_TRICKS; k++) {
+				levels[k].clear();
+				while (levels[k].hasRemaining())
+					channel.write(levels[k]);
+			}
+		}
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Returns the 2 bit entry at an index.
+	 */
+	private static int get(ByteBuffer level, long index) {
+		return level.get((int) (index >>> 2)) >>> ((index & 3) * 2) & 3;
+	}
+
+	/**
+	 * Returns the entry number of a position.
+	 *
+	 * @param hands
+	 *            The masks of the cards left in each seat's hand, by seat
+	 * @param leader
+	 *            The seat to lead, stored as seat 0
+	 * @param k
+	 *            The number of rounds left.
+	 * @param spadesBroken
+	 *            true if a spade has been played this hand
+	 * @return the entry number
+	 */
+	private static long index(long[] hands, int leader, int k, boolean spadesBroken) {
+		long all = hands[0] | hands[1] | hands[2] | hands[3];
+		// each side suit as its length and the seats of its cards, high to low
+		long[] keys = new long[3];
+		for (int i = 0; i < 3; i++)
+			keys[i] = suitKey(hands, all, SIDE_SUITS[i], leader);
+		sortDescending(keys);
+		long spades = suitKey(hands, all, SPADES, leader);
+
+		int[] counts = { k, k, k, k };
+		long rank = 0;
+		for (int i = 0; i < 4; i++) {
+			long key = i < 3 ? keys[i] : spades;
+			int length = (int) (key >>> 32);
+			for (int j = length - 1; j >= 0; j--)
+				rank += rankOf((int) (key >>> (2 * j)) & 3, counts);
+		}
+		int lengths = LENGTHS[k][(int) (keys[0] >>> 32)][(int) (keys[1] >>> 32)][(int) (keys[2] >>> 32)];
+		return ((lengths * ARRANGEMENTS[k] + rank) << 1) | (spadesBroken ? 1 : 0);
+	}
+
+	/**
+	 * Returns the key of a suit: its length in the high 32 bits, and two bits
+	 * for the seat of each card, counted from the leader, with the highest
+	 * card in the highest bits.
+	 */
+	private static long suitKey(long[] hands, long all, int suit, int leader) {
+		long live = all & (CardSet.SUIT_BITS << (suit * CardSet.SUIT_SIZE));
+		long seats = 0;
+		int length = 0;
+		while (live != 0) {
+			long bit = Long.highestOneBit(live);
+			live &= ~bit;
+			int seat = (hands[0] & bit) != 0 ? 0 : (hands[1] & bit) != 0 ? 1 : (hands[2] & bit) != 0 ? 2 : 3;
+			seats = seats << 2 | ((seat - leader) & 3);
+			length++;
+		}
+		return (long) length << 32 | seats;
+	}
+
+	/**
+	 * Sorts three keys from the largest to the smallest.
+	 */
+	private static void sortDescending(long[] keys) {
+		for (int i = 0; i < 2; i++) {
+			for (int j = 0; j < 2 - i; j++) {
+				if (keys[j] < keys[j + 1]) {
+					long swap = keys[j];
+					keys[j] = keys[j + 1];
+					keys[j + 1] = swap;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Counts the orders of the seats left that come before the next card
+	 * going to a seat, and takes the card from that seat's count.
+	 */
+	private static long rankOf(int seat, int[] counts) {
+		long before = 0;
+		for (int s = 0; s < seat; s++) {
+			if (counts[s] > 0) {
+				counts[s]--;
+				before += arrangements(counts);
+				counts[s]++;
+			}
+		}
+		counts[seat]--;
+		return before;
+	}
+
+	/**
+	 * Returns the number of orders of cards with some number going to each
+	 * seat.
+	 */
+	private static long arrangements(int[] counts) {
+		return FACTORIAL[counts[0] + counts[1] + counts[2] + counts[3]]
+				/ (FACTORIAL[counts[0]] * FACTORIAL[counts[1]] * FACTORIAL[counts[2]] * FACTORIAL[counts[3]]);
+	}
+
+	/**
+	 * Solves the entries of a range of a level, using this table for the
+	 * level below.
+	 *
+	 * @param level
+	 *            The level being filled.
+	 * @param k
+	 *            The number of rounds left in its positions.
+	 * @param first
+	 *            The first entry to fill, a multiple of 4
+	 * @param end
+	 *            The entry after the last one to fill.
+	 */
+	private void fill(ByteBuffer level, int k, long first, long end) {
+		long[] hands = new long[4];
+		int packed = 0;
+		for (long i = first; i < end; i++) {
+			int value = 0;
+			// entries of side suits out of order are never looked up
+			if (position(i, k, hands) && index(hands, 0, k, (i & 1) != 0) == i)
+				value = new Trick(hands, k, (i & 1) != 0).best(0, -1, k + 1);
+			packed |= value << ((i & 3) * 2);
+			if ((i & 3) == 3 || i == end - 1) {
+				level.put((int) (i >>> 2), (byte) packed);
+				packed = 0;
+			}
+		}
+	}
+
+	/**
+	 * Makes the position of an entry, with the leader in seat 0 and the cards
+	 * of each suit at the top of the suit.
+	 *
+	 * @return false if the entry is not a position
+	 */
+	private static boolean position(long index, int k, long[] hands) {
+		long rest = index >>> 1;
+		int[] lengths = SUIT_LENGTHS[k][(int) (rest / ARRANGEMENTS[k])];
+		rest %= ARRANGEMENTS[k];
+		int[] counts = { k, k, k, k };
+		for (int s = 0; s < 4; s++)
+			hands[s] = 0;
+		for (int i = 0; i < 4; i++) {
+			int suit = i < 3 ? SIDE_SUITS[i] : SPADES;
+			for (int j = 0; j < lengths[i]; j++) {
+				// the seat whose orders hold the rest of the rank
+				int seat = 0;
+				while (true) {
+					if (counts[seat] > 0) {
+						counts[seat]--;
+						long n = arrangements(counts);
+						if (rest < n)
+							break;
+						rest -= n;
+						counts[seat]++;
+					}
+					if (++seat == 4)
+						return false;
+				}
+				hands[seat] |= CardSet.bit(suit * CardSet.SUIT_SIZE + CardSet.SUIT_SIZE - 1 - j);
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * INNER CLASSES
+	 */
+
+	/**
+	 * Plays out every way the next round can go from a position, with the
+	 * positions after it looked up in the table.
+	 */
+	private class Trick {
+
+		private final long[] hands; // cards of each seat, the leader is seat 0.
+		private final int k; // rounds left.
+		private final boolean spadesBroken; // true once a spade has been played.
+		private final int[] cards = new int[4]; // the cards of the round so far.
+
+		Trick(long[] hands, int k, boolean spadesBroken) {
+			this.hands = hands;
+			this.k = k;
+			this.spadesBroken = spadesBroken;
+		}
+
+		/**
+		 * Returns the tricks the leader's team takes when the seats from
+		 * seat on play their best cards.
+		 */
+		int best(int seat, int alpha, int beta) {
+			if (seat == 4)
+				return afterRound();
+			int led = seat == 0 ? Rules.NO_LEAD : cards[0] / CardSet.SUIT_SIZE;
+			long legal = Rules.legalMoves(hands[seat], led, spadesBroken);
+			boolean leaders = (seat & 1) == 0;
+			int best = leaders ? -1 : k + 1;
+			for (long m = legal; m != 0; m &= m - 1) {
+				int card = Long.numberOfTrailingZeros(m);
+				cards[seat] = card;
+				hands[seat] &= ~CardSet.bit(card);
+				int value = best(seat + 1, alpha, beta);
+				hands[seat] |= CardSet.bit(card);
+				if (leaders ? value > best : value < best)
+					best = value;
+				if (leaders)
+					alpha = Math.max(alpha, best);
+				else
+					beta = Math.min(beta, best);
+				if (alpha >= beta)
+					break;
+			}
+			return best;
+		}
+
+		/**
+		 * Returns the tricks the leader's team takes from the round just
+		 * played on.
+		 */
+		private int afterRound() {
+			int winner = TrickResolver.winner(cards[0], cards[1], cards[2], cards[3], 0);
+			int won = (winner & 1) == 0 ? 1 : 0;
+			if (k == 1)
+				return won;
+			boolean broken = spadesBroken;
+			for (int card : cards)
+				broken |= card / CardSet.SUIT_SIZE == SPADES;
+			int next = get(levels[k - 1], index(hands, winner, k - 1, broken));
+			// next is counted for the winner's team
+			return won + (won == 1 ? next : k - 1 - next);
+		}
+	}
+}
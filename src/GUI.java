@@ -5,6 +5,8 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * This class provides the GUI for the main window of our game. It also controls the flow of the game and
@@ -113,19 +115,6 @@ public class GUI extends JFrame {
      */
     private Font font;
 
-    /**
-     * These ImageIcons are used to display the face down hand images of cards
-     * within JLabels. They are updated as cards are played and their size
-     * depends on the screen resolution chosen.
-     */
-    private ImageIcon horizontalHandIcon, verticalHandIcon;
-
-    /**
-     * These Image objects are used to manipulate the size of the images
-     * displayed as the size depends on the screen resolution chosen.
-     */
-    private Image horizontalHandImage, sizedHorizontalHandImage, verticalHandImage, sizedVerticalHandImage;
-
     /**
      * The color is used to set the initial background color with the
      * setBackgroundColor method. Declared in the constructor and green by
@@ -141,43 +130,26 @@ public class GUI extends JFrame {
     private ArrayList<CardButton> myHand0, myHand1, myHand2, myHand3;
 
     /**
-     * The playedCards ArrayList stores cards played for each round in the order
-     * of South player in 0, West player in 1, North player in 2 and East player
-     * in 3. MiddlePile stores the same cards but in the order that they are
-     * played, since this order changes every round. We use two different orders
-     * because for some methods it is easier to work with if the cards are in
-     * the order that they are played, such as for Bot's playCard method, but
-     * for determining the winner of the round, it is important to know who
-     * played which card.
+     * The engine runs the rules of the game: dealing, bidding, playing each
+     * round, finding the winner of the round and scoring. The GUI tells it
+     * what the players do and displays what happens.
      */
-    private ArrayList<Card> playedCards, middlePile;
+    private SpadesEngine engine;
 
     /**
-     * Holds the Card value returned by the determineWinner method called after
-     * each round and used in conjunction with the playedCards array list to
-     * determine which player played the winning card.
+     * The bids are looked up in the bid table file if there is one (see
+     * BidTable), otherwise the bidder chooses every seat's bid by playing its
+     * hand out against random hands, taking BID_MILLIS for each seat so
+     * dealing stays quick.
      */
-    private Card winner;
+    private static final BidTable BID_TABLE = BidTable.loadDefault();
+    private static final long BID_MILLIS = 250;
+    private final Bidder bidder = new Bidder(BID_MILLIS);
 
     /**
-     * Creates a driver object which helps control some of the game play flow.
+     * The ints declared here help with some control of the game play flow.
      */
-    private Driver driver;
-
-    /**
-     * The ints declared here keep track of various score features and help with
-     * some control of the game play flow.
-     */
-    private int southTricksTaken, eastTricksTaken, northTricksTaken, westTricksTaken, southTricksBid, eastTricksBid,
-            westTricksBid, northTricksBid, tricksBidNS, tricksBidEW, ptsScoredNS, ptsScoredEW, scoreNS, scoreEW,
-            sandbagsNS, sandbagsEW, totalBagsNS, totalBagsEW, turnNumber, nextPlayer, imageNum, numHumans, screenResNum;
-
-    /**
-     * Used by the playableCard method. Is true once spades have been played
-     * during a round so the game knows whether or not to allow a player to lead
-     * with spades.
-     */
-    private boolean spadesPlayed;
+    private int imageNum, numHumans, screenResNum;
 
 	/*
      * CONSTRUCTORS
@@ -186,24 +158,26 @@ public class GUI extends JFrame {
     /**
      * This constructor creates the GUI object for the first round of a game. It
      * sets the font size and initial image size according the the screenRes int
-     * passed in. It creates a new driver object, call the method to initialize
-     * all the variables that do not change whether it is a new game or the next
-     * hand. It sets the look and feel of the GUI to windows, which will throw
-     * an exception on a Mac but this will be caught by the try/catch block.
-     * This constructor sets the score and number of sand bags for both teams to
-     * 0 and then calls the methods to initialize all the parts of the game
-     * board. Lastly, it sets the background color to the default color of green
-     * with the setBackgroundColor method.
+     * passed in. It creates a new engine for the game, call the method to
+     * initialize all the variables that do not change whether it is a new game
+     * or the next hand. It sets the look and feel of the GUI to windows, which
+     * will throw an exception on a Mac but this will be caught by the try/catch
+     * block. The engine starts the score and number of sand bags for both
+     * teams at 0. This constructor then calls the methods to initialize all the
+     * parts of the game board. Lastly, it sets the background color to the
+     * default color of green with the setBackgroundColor method.
      *
      * @param screenRes 1 if lower resolution is selected, 0 if higher resolution is
      *                  selected
+     * @param context   the seats, memory and random numbers of the game
      */
-    public GUI(int screenRes) {
+    public GUI(int screenRes, GameContext context) {
         // Set the layout of the JFrame to Border Layout
         setLayout(new BorderLayout());
 
-        // Initialize all start of hand variables
-        initializeVariables(screenRes);
+        // Initialize all start of hand variables, new game with no score or
+        // sand bags
+        initializeVariables(screenRes, new SpadesEngine(new Driver(context)));
 
         // Set the look and feel to Windows, catch exception thrown if this look
         // and feel is not supported
@@ -236,12 +210,6 @@ public class GUI extends JFrame {
 
         // Set background to green
         setBackgroundColor(bgColor);
-
-        // Set new game score and bags
-        scoreNS = 0;
-        scoreEW = 0;
-        totalBagsNS = 0;
-        totalBagsEW = 0;
     }
 
     /**
@@ -256,13 +224,17 @@ public class GUI extends JFrame {
      * @param bagsNS       number of sand bags for North and South team from previous
      *                     round
      * @param bagsEW       number of sand bags for East and West team from previous round
+     * @param context      the seats, memory and random numbers of the game
      */
-    public GUI(int screenRes, int totalScoreNS, int totalScoreEW, int bagsNS, int bagsEW) {
+    public GUI(int screenRes, int totalScoreNS, int totalScoreEW, int bagsNS, int bagsEW, GameContext context) {
         // Set the layout of the JFrame to Border Layout
         setLayout(new BorderLayout());
 
-        // Initialize all start of hand variables
-        initializeVariables(screenRes);
+        // Initialize all start of hand variables, set the score and sand bags
+        // as passed in from previous hand, only different part of the
+        // constructor
+        initializeVariables(screenRes,
+                new SpadesEngine(new Driver(context), totalScoreNS, totalScoreEW, bagsNS, bagsEW));
 
         // Set the look and feel to Windows, catch exception thrown if this look
         // and feel is not supported
@@ -295,13 +267,6 @@ public class GUI extends JFrame {
 
         // Set background to green
         setBackgroundColor(bgColor);
-
-        // Set the score and sand bags as passed in from previous hand, only
-        // different part of the constructor
-        scoreNS = totalScoreNS;
-        scoreEW = totalScoreEW;
-        totalBagsNS = bagsNS;
-        totalBagsEW = bagsEW;
     }
 
 	/*
@@ -315,13 +280,15 @@ public class GUI extends JFrame {
      *
      * @param screenRes 1 if lower resolution is selected, 0 if higher resolution is
      *                  selected
+     * @param game      the engine that runs the rules of the game for this hand
      */
-    private void initializeVariables(int screenRes) {
+    private void initializeVariables(int screenRes, SpadesEngine game) {
         // Set the screen resolution
         screenResNum = screenRes;
 
-        // Create a new driver object, passing in the screen resolution selected
-        driver = new Driver(screenRes);
+        // The engine holds the driver object, which was passed the context
+        // of the game
+        engine = game;
 
         // Set font dependent on screen resolution selected
         if (screenResNum == 1)
@@ -329,79 +296,33 @@ public class GUI extends JFrame {
         else
             font = new Font("Sans Serif", Font.BOLD, 20);
 
-        // Set initial face down card image sizes based on screen resolution
-        horizontalHandIcon = new ImageIcon("src/PNG-cards-1.3/CardBack13.png");
-        horizontalHandImage = horizontalHandIcon.getImage();
-        verticalHandIcon = new ImageIcon("src/PNG-cards-1.3/CardBackSide13.png");
-        verticalHandImage = verticalHandIcon.getImage();
-
-        if (screenResNum == 1) {
-            sizedHorizontalHandImage = horizontalHandImage.getScaledInstance(350, 100, Image.SCALE_FAST);
-            sizedVerticalHandImage = verticalHandImage.getScaledInstance(100, 350, Image.SCALE_FAST);
-        } else {
-            sizedHorizontalHandImage = horizontalHandImage.getScaledInstance(700, 200, Image.SCALE_FAST);
-            sizedVerticalHandImage = verticalHandImage.getScaledInstance(200, 700, Image.SCALE_FAST);
-        }
-
         // Initialized to 13 because all players start with 13 cards,
         // decremented each round
         imageNum = 13;
 
-        // All players start having taken 0 tricks
-        southTricksTaken = 0;
-        eastTricksTaken = 0;
-        northTricksTaken = 0;
-        westTricksTaken = 0;
-
-        // Initialize bids to 0, set to number of spades in hand after play
-        // button clicked
-        southTricksBid = 0;
-        westTricksBid = 0;
-        northTricksBid = 0;
-        eastTricksBid = 0;
-
-        // Keeps track of what turn the game is on, 0-3, resets each round
-        turnNumber = 0;
-
-        // Used to check which player starts the next round, updated on nextTurn
-        // click
-        nextPlayer = 0;
-
-        // Variables used to keep track of score and bags for the teams for the
-        // round
-        tricksBidNS = 0;
-        tricksBidEW = 0;
-        ptsScoredNS = 0;
-        ptsScoredEW = 0;
-        sandbagsNS = 0;
-        sandbagsEW = 0;
-
         // Number of human players in the game, used to determine if
         // nextPlayerReady button should be displayed
         numHumans = 0;
 
         // Initialized the ArrayList of CardButtons for human players hands,
         // increments numHumans
-        if (driver.players[0] instanceof Human) {
+        if (engine.getPlayer(0) instanceof Human) {
             myHand0 = new ArrayList<>();
             numHumans++;
         }
-        if (driver.players[1] instanceof Human) {
+        if (engine.getPlayer(1) instanceof Human) {
             myHand1 = new ArrayList<>();
             numHumans++;
         }
-        if (driver.players[2] instanceof Human) {
+        if (engine.getPlayer(2) instanceof Human) {
             myHand2 = new ArrayList<>();
             numHumans++;
         }
-        if (driver.players[3] instanceof Human) {
+        if (engine.getPlayer(3) instanceof Human) {
             myHand3 = new ArrayList<>();
             numHumans++;
         }
 
-        // Holds the card of the winner of the round
-        winner = null;
-
         // Default background color, green
         bgColor = new Color(0, 200, 0);
 
@@ -412,20 +333,6 @@ public class GUI extends JFrame {
         // size as the card
         margin = new Insets(0, 0, 0, 0);
 
-        // Initializes playedCards arrayList of cards, cards added in same order
-        // each round
-        playedCards = new ArrayList<>(4);
-        playedCards.add(null);
-        playedCards.add(null);
-        playedCards.add(null);
-        playedCards.add(null);
-
-        // Initializes middlePile arrayList of cards, cards added in the order
-        // played
-        middlePile = new ArrayList<>();
-
-        // True when spades are "broken" and players can then lead with spades
-        spadesPlayed = false;
     }
 
     /**
@@ -480,11 +387,11 @@ public class GUI extends JFrame {
         north.add(cardDisplayNorth, cons1);
 
         // Position 0 holds the face down card image
-        playerN[0] = new JLabel(new ImageIcon(sizedHorizontalHandImage));
+        playerN[0] = new JLabel(CardImages.getBack(13, false, screenResNum));
         cardDisplayNorth.add(playerN[0]);
 
         // Position 1 holds the player's name or "Bot"
-        playerN[1] = new JLabel(driver.playerAry[2]);
+        playerN[1] = new JLabel(engine.getName(2));
         cons1.fill = GridBagConstraints.HORIZONTAL;
         cons1.gridx = 1;
         cons1.gridy = 0;
@@ -534,11 +441,11 @@ public class GUI extends JFrame {
         east.add(cardDisplayEast, cons2);
 
         // Position 0 holds the face down card image
-        playerE[0] = new JLabel(new ImageIcon(sizedVerticalHandImage));
+        playerE[0] = new JLabel(CardImages.getBack(13, true, screenResNum));
         cardDisplayEast.add(playerE[0]);
 
         // Position 1 holds the player's name or "Bot"
-        playerE[1] = new JLabel(driver.playerAry[3]);
+        playerE[1] = new JLabel(engine.getName(3));
         cons2.fill = GridBagConstraints.HORIZONTAL;
         cons2.gridx = 0;
         cons2.gridy = 1;
@@ -594,11 +501,11 @@ public class GUI extends JFrame {
         west.add(cardDisplayWest, cons3);
 
         // Position 0 holds the face down card image
-        playerW[0] = new JLabel(new ImageIcon(sizedVerticalHandImage));
+        playerW[0] = new JLabel(CardImages.getBack(13, true, screenResNum));
         cardDisplayWest.add(playerW[0]);
 
         // Position 1 holds the player's name or "Bot"
-        playerW[1] = new JLabel(driver.playerAry[1]);
+        playerW[1] = new JLabel(engine.getName(1));
         cons3.fill = GridBagConstraints.HORIZONTAL;
         cons3.gridx = 0;
         cons3.gridy = 0;
@@ -655,11 +562,11 @@ public class GUI extends JFrame {
         south.add(cardDisplaySouth, cons4);
 
         // Position 0 holds the face down card image
-        playerS[0] = new JLabel(new ImageIcon(sizedHorizontalHandImage));
+        playerS[0] = new JLabel(CardImages.getBack(13, false, screenResNum));
         cardDisplaySouth.add(playerS[0]);
 
         // Position 1 holds the player's name or "Bot"
-        playerS[1] = new JLabel(driver.playerAry[0]);
+        playerS[1] = new JLabel(engine.getName(0));
         cons4.fill = GridBagConstraints.HORIZONTAL;
         cons4.gridx = 0;
         cons4.gridy = 0;
@@ -855,90 +762,19 @@ public class GUI extends JFrame {
      * disables buttons based on whether the cards can be played or not.
      *
      * @param myHand The players hand to be evaluated
-     * @param pile   The middlePile arrayList that contains the cards already
-     *               played in the order they were played
+     * @param pile   The cards already played this round in the order they were
+     *               played
      */
-    private void playableCards(ArrayList<CardButton> myHand, ArrayList<Card> pile) {
-        // If you are the first person to play that turn, enable all cards if
-        // spadesPlayed is true
-        // or all cards except spades if spadesPlayed is false
-        if (pile == null || pile.size() == 0) {
-            for (CardButton aMyHand : myHand) {
-                if (aMyHand.getCard().getSuit() == Suit.SPADE && !spadesPlayed)
-                    aMyHand.setEnabled(false);
-                else
-                    aMyHand.setEnabled(true);
-            }
-            return;
-        }
-
-        // The first card played, determines the lead suit
-        Card card1 = pile.get(0);
-        // Counts the number of cards disabled, if all cards in hand disabled,
-        // enable all cards
-        int count = 0;
-
-        // you can only play cards from the first suit
-        for (CardButton aMyHand : myHand) {
-            if (aMyHand.getCard().getSuit() != card1.getSuit()) {
-                aMyHand.setEnabled(false);
-                count++;
-            }
-        }
-
-        // if you don't have that first card suit, you can play anything
-        if (count == myHand.size()) {
-            for (CardButton aMyHand : myHand) {
-                aMyHand.setEnabled(true);
-            }
-        }
-
-    }
-
-    /**
-     * Calculates the number of points a team scored for a round based on their
-     * tricks bid and tricks taken. Called once for North and South and once for
-     * East and West
-     *
-     * @param p1TricksBid   First player on the team's tricks bid
-     * @param p2TricksBid   Second player on the team's tricks bid
-     * @param p1TricksTaken First player on the team's tricks taken
-     * @param p2TricksTaken Second player on the team's tricks taken
-     * @return The points for that team for the round
-     */
-    private int pointsScored(int p1TricksBid, int p2TricksBid, int p1TricksTaken, int p2TricksTaken) {
-        int score;
-        if ((p1TricksTaken + p2TricksTaken) < (p1TricksBid + p2TricksBid))
-            score = -(10 * (p1TricksBid + p2TricksBid));
-        else if ((p1TricksTaken + p2TricksTaken) == (p1TricksBid + p2TricksBid))
-            score = 10 * (p1TricksBid + p2TricksBid);
-        else {
-            score = (10 * (p1TricksBid + p2TricksBid))
-                    + ((p1TricksTaken + p2TricksTaken) - (p1TricksBid + p2TricksBid));
-        }
-
-        return score;
-    }
-
-    /**
-     * Calculated the number of sand bags for a team for a round based on their
-     * tricks bid and tricks taken. Called once for North and South and once for
-     * East and West
-     *
-     * @param p1TricksBid   First player on the team's tricks bid
-     * @param p2TricksBid   Second player on the team's tricks bid
-     * @param p1TricksTaken First player on the team's tricks taken
-     * @param p2TricksTaken Second player on the team's tricks taken
-     * @return The total sand bags for the team for that round, returns 0 if
-     * none
-     */
-    private int sandBags(int p1TricksBid, int p2TricksBid, int p1TricksTaken, int p2TricksTaken) {
-        int bags = 0;
-        // If more tricks are taken than bid, number of over tricks = number of
-        // sand bags
-        if ((p1TricksTaken + p2TricksTaken) > (p1TricksBid + p2TricksBid))
-            bags = (p1TricksTaken + p2TricksTaken) - (p1TricksBid + p2TricksBid);
-        return bags;
+    private void playableCards(ArrayList<CardButton> myHand, List<Card> pile) {
+        // Collect the cards of the buttons into a mask and let Rules decide
+        // which of them can be played
+        long hand = 0L;
+        for (CardButton aMyHand : myHand)
+            hand |= CardSet.bit(aMyHand.getCard().getOrdinal());
+        long legal = Rules.legalMoves(hand, pile, engine.isSpadesPlayed());
+
+        for (CardButton aMyHand : myHand)
+            aMyHand.setEnabled((legal & CardSet.bit(aMyHand.getCard().getOrdinal())) != 0);
     }
 
     /**
@@ -973,34 +809,17 @@ public class GUI extends JFrame {
 
     /**
      * Used to update the images for the face down cards based on the number of
-     * cards left in the player's hand. Adjusts the size based on screen
-     * resolution chosen.
+     * cards left in the player's hand. The images are already sized for the
+     * screen resolution chosen by CardImages.
      */
     private void updateCardImages() {
-        if (screenResNum == 1) {
-            horizontalHandIcon = new ImageIcon("src/PNG-cards-1.3/CardBack" + --imageNum + ".png");
-            horizontalHandImage = horizontalHandIcon.getImage();
-            sizedHorizontalHandImage = horizontalHandImage.getScaledInstance((50 + imageNum * 25), 100,
-                    Image.SCALE_FAST);
-
-            verticalHandIcon = new ImageIcon("src/PNG-cards-1.3/CardBackSide" + imageNum + ".png");
-            verticalHandImage = verticalHandIcon.getImage();
-            sizedVerticalHandImage = verticalHandImage.getScaledInstance(100, (50 + imageNum * 25), Image.SCALE_FAST);
-        } else {
-            horizontalHandIcon = new ImageIcon("src/PNG-cards-1.3/CardBack" + --imageNum + ".png");
-            horizontalHandImage = horizontalHandIcon.getImage();
-            sizedHorizontalHandImage = horizontalHandImage.getScaledInstance((100 + imageNum * 50), 200,
-                    Image.SCALE_FAST);
-
-            verticalHandIcon = new ImageIcon("src/PNG-cards-1.3/CardBackSide" + imageNum + ".png");
-            verticalHandImage = verticalHandIcon.getImage();
-            sizedVerticalHandImage = verticalHandImage.getScaledInstance(200, (100 + imageNum * 50), Image.SCALE_FAST);
-        }
+        ImageIcon horizontalHandIcon = CardImages.getBack(--imageNum, false, screenResNum);
+        ImageIcon verticalHandIcon = CardImages.getBack(imageNum, true, screenResNum);
 
-        playerE[0].setIcon(new ImageIcon(sizedVerticalHandImage));
-        playerS[0].setIcon(new ImageIcon(sizedHorizontalHandImage));
-        playerW[0].setIcon(new ImageIcon(sizedVerticalHandImage));
-        playerN[0].setIcon(new ImageIcon(sizedHorizontalHandImage));
+        playerE[0].setIcon(verticalHandIcon);
+        playerS[0].setIcon(horizontalHandIcon);
+        playerW[0].setIcon(verticalHandIcon);
+        playerN[0].setIcon(horizontalHandIcon);
     }
 
 	/*
@@ -1026,34 +845,66 @@ public class GUI extends JFrame {
     private class Play implements ActionListener {
 
         /**
-         * Tells the driver to deal the hands for the game from the deck. Hides
-         * the play button. Initialize all human players' hands but set visible
-         * to false. Generate a random number to determine which player will
-         * start the game. If human, display their hand and wait for click, else
-         * if bot create a CardButton with PlayCard action listener and click it
+         * Tells the engine to deal the hands for the game from the deck. Hides
+         * the play button. The bids are chosen by a SwingWorker, since the
+         * bidder takes BID_MILLIS for each seat, and play starts once all four
+         * are known.
          */
         public void actionPerformed(ActionEvent e) {
             // Deals hands of 13 cards to each player
-            driver.dealHands();
+            engine.deal();
             // Hide the play button
             play.setVisible(false);
+            playerS[2].setText("Tricks Bid: ...");
+            playerW[2].setText("Tricks Bid: ...");
+            playerN[2].setText("Tricks Bid: ...");
+            playerE[2].setText("Tricks Bid: ...");
+
+            // Sets the tricks each player bids to the bid with the best average
+            // score when their hand is played out against random hands
+            new SwingWorker<int[], Void>() {
+                @Override
+                protected int[] doInBackground() {
+                    int[] bids = new int[4];
+                    for (int i = 0; i < 4; i++) {
+                        Hand hand = engine.getPlayer(i).getHand();
+                        if (BID_TABLE != null)
+                            bids[i] = BID_TABLE.bid(hand);
+                        else
+                            bids[i] = bidder.bid(hand, engine.getDriver().getContext().getRandom());
+                    }
+                    return bids;
+                }
+
+                @Override
+                protected void done() {
+                    int[] bids;
+                    try {
+                        bids = get();
+                    } catch (InterruptedException | ExecutionException ex) {
+                        throw new IllegalStateException("Bidding failed", ex);
+                    }
+                    for (int i = 0; i < 4; i++)
+                        engine.bid(i, bids[i]);
+                    startPlay();
+                }
+            }.execute();
+        }
+
+        /**
+         * Displays the bids. Initialize all human players' hands but set
+         * visible to false. The engine picks a random player to start the
+         * game. If human, display their hand and wait for click, else if bot
+         * create a CardButton with PlayCard action listener and click it
+         */
+        private void startPlay() {
             // Action listener to be added to all human players' CardButtons
             PlayCard p = new PlayCard();
 
-            // Sets the tricks each player bids to the number of spades in their
-            // hand
-            southTricksBid = driver.players[0].getHand().getNumSpades();
-            westTricksBid = driver.players[1].getHand().getNumSpades();
-            northTricksBid = driver.players[2].getHand().getNumSpades();
-            eastTricksBid = driver.players[3].getHand().getNumSpades();
-            playerS[2].setText("Tricks Bid: " + southTricksBid);
-            playerW[2].setText("Tricks Bid: " + westTricksBid);
-            playerN[2].setText("Tricks Bid: " + northTricksBid);
-            playerE[2].setText("Tricks Bid: " + eastTricksBid);
-
-            // Calculates each team's number of tricks bid for use in scoring
-            tricksBidNS = northTricksBid + southTricksBid;
-            tricksBidEW = eastTricksBid + westTricksBid;
+            playerS[2].setText("Tricks Bid: " + engine.getBid(0));
+            playerW[2].setText("Tricks Bid: " + engine.getBid(1));
+            playerN[2].setText("Tricks Bid: " + engine.getBid(2));
+            playerE[2].setText("Tricks Bid: " + engine.getBid(3));
 
             // Check to see if each player is Human, if they are initializes how
             // their hand will be
@@ -1063,7 +914,7 @@ public class GUI extends JFrame {
             // players' hands will be
             // displayed horizontally in one row. Also adds PlayCard action
             // listener to each button
-            if (driver.players[1] instanceof Human) {
+            if (engine.getPlayer(1) instanceof Human) {
                 cardDisplayWest.setLayout(new GridBagLayout());
                 GridBagConstraints cons = new GridBagConstraints();
                 cons.gridx = 0;
@@ -1076,8 +927,8 @@ public class GUI extends JFrame {
                 cons.gridy = 2;
                 cardDisplayWest.add(wCardRow3, cons);
                 for (int i = 0; i < 13; i++) {
-                    CardButton button = new CardButton(driver.players[1].getHand().getCardAtPosition(i).getImage(),
-                            driver.players[1].getHand().getCardAtPosition(i));
+                    CardButton button = new CardButton(CardImages.get(engine.getPlayer(1).getHand().getCardAtPosition(i), screenResNum),
+                            engine.getPlayer(1).getHand().getCardAtPosition(i));
                     button.setMargin(margin);
                     button.addActionListener(p);
                     myHand1.add(i, button);
@@ -1090,10 +941,10 @@ public class GUI extends JFrame {
                         wCardRow3.add(myHand1.get(i));
                 }
             }
-            if (driver.players[2] instanceof Human) {
+            if (engine.getPlayer(2) instanceof Human) {
                 for (int i = 0; i < 13; i++) {
-                    CardButton button = new CardButton(driver.players[2].getHand().getCardAtPosition(i).getImage(),
-                            driver.players[2].getHand().getCardAtPosition(i));
+                    CardButton button = new CardButton(CardImages.get(engine.getPlayer(2).getHand().getCardAtPosition(i), screenResNum),
+                            engine.getPlayer(2).getHand().getCardAtPosition(i));
                     button.setMargin(margin);
                     button.addActionListener(p);
                     myHand2.add(i, button);
@@ -1101,7 +952,7 @@ public class GUI extends JFrame {
                     myHand2.get(i).setVisible(false);
                 }
             }
-            if (driver.players[3] instanceof Human) {
+            if (engine.getPlayer(3) instanceof Human) {
                 cardDisplayEast.setLayout(new GridBagLayout());
                 GridBagConstraints cons = new GridBagConstraints();
                 cons.gridx = 0;
@@ -1114,8 +965,8 @@ public class GUI extends JFrame {
                 cons.gridy = 2;
                 cardDisplayEast.add(eCardRow3, cons);
                 for (int i = 0; i < 13; i++) {
-                    CardButton button = new CardButton(driver.players[3].getHand().getCardAtPosition(i).getImage(),
-                            driver.players[3].getHand().getCardAtPosition(i));
+                    CardButton button = new CardButton(CardImages.get(engine.getPlayer(3).getHand().getCardAtPosition(i), screenResNum),
+                            engine.getPlayer(3).getHand().getCardAtPosition(i));
                     button.setMargin(margin);
                     button.addActionListener(p);
                     myHand3.add(i, button);
@@ -1128,10 +979,10 @@ public class GUI extends JFrame {
                         eCardRow3.add(myHand3.get(i));
                 }
             }
-            if (driver.players[0] instanceof Human) {
+            if (engine.getPlayer(0) instanceof Human) {
                 for (int i = 0; i < 13; i++) {
-                    CardButton button = new CardButton(driver.players[0].getHand().getCardAtPosition(i).getImage(),
-                            driver.players[0].getHand().getCardAtPosition(i));
+                    CardButton button = new CardButton(CardImages.get(engine.getPlayer(0).getHand().getCardAtPosition(i), screenResNum),
+                            engine.getPlayer(0).getHand().getCardAtPosition(i));
                     button.setMargin(margin);
                     button.addActionListener(p);
                     myHand0.add(i, button);
@@ -1140,59 +991,55 @@ public class GUI extends JFrame {
                 }
             }
 
-            // Generate a random number 0-3 to determine who will start the
-            // hand. If that player is human,
+            // The engine picked a random number 0-3 to determine who will
+            // start the hand. If that player is human,
             // display their hand, else if bot, create a CardButton with
             // PlayCard action listener and
             // click
-            int randomNum = (int) (Math.random() * 4);
+            int randomNum = engine.getTurn();
             if (randomNum == 0) {
-                driver.players[0].setTurnToPlay(true);
-                if (driver.players[0] instanceof Human) {
+                if (engine.getPlayer(0) instanceof Human) {
                     playerS[0].setVisible(false);
                     for (int i = 0; i < 13; i++) {
                         myHand0.get(i).setVisible(true);
                     }
-                    playableCards(myHand0, middlePile);
+                    playableCards(myHand0, engine.getTrick());
                 } else {
                     CardButton b = new CardButton();
                     b.addActionListener(p);
                     b.doClick();
                 }
             } else if (randomNum == 1) {
-                driver.players[1].setTurnToPlay(true);
-                if (driver.players[1] instanceof Human) {
+                if (engine.getPlayer(1) instanceof Human) {
                     playerW[0].setVisible(false);
                     for (int i = 0; i < 13; i++) {
                         myHand1.get(i).setVisible(true);
                     }
-                    playableCards(myHand1, middlePile);
+                    playableCards(myHand1, engine.getTrick());
                 } else {
                     CardButton b = new CardButton();
                     b.addActionListener(p);
                     b.doClick();
                 }
             } else if (randomNum == 2) {
-                driver.players[2].setTurnToPlay(true);
-                if (driver.players[2] instanceof Human) {
+                if (engine.getPlayer(2) instanceof Human) {
                     playerN[0].setVisible(false);
                     for (int i = 0; i < 13; i++) {
                         myHand2.get(i).setVisible(true);
                     }
-                    playableCards(myHand2, middlePile);
+                    playableCards(myHand2, engine.getTrick());
                 } else {
                     CardButton b = new CardButton();
                     b.addActionListener(p);
                     b.doClick();
                 }
             } else if (randomNum == 3) {
-                driver.players[3].setTurnToPlay(true);
-                if (driver.players[3] instanceof Human) {
+                if (engine.getPlayer(3) instanceof Human) {
                     playerE[0].setVisible(false);
                     for (int i = 0; i < 13; i++) {
                         myHand3.get(i).setVisible(true);
                     }
-                    playableCards(myHand3, middlePile);
+                    playableCards(myHand3, engine.getTrick());
                 } else {
                     CardButton b = new CardButton();
                     b.addActionListener(p);
@@ -1220,22 +1067,28 @@ public class GUI extends JFrame {
          */
         public void actionPerformed(ActionEvent e) {
             // Set b to the CardButton that was clicked to trigger the event
-            CardButton b = (CardButton) e.getSource();
+            playTurns((CardButton) e.getSource());
+        }
 
-            // Keep going through the loop while turnNumber is 0-3
-            while (turnNumber < 4) {
+        /**
+         * Plays the cards of the round from the seat whose turn it is, until a
+         * human has to click a card, a bot is choosing its card or the round
+         * is over.
+         *
+         * @param b the CardButton that was clicked, if it is a human's turn
+         */
+        private void playTurns(CardButton b) {
+            // Keep going through the loop until all four cards are played
+            while (!engine.isTrickComplete()) {
                 // Every player has a boolean turnToPlay property that is true
-                // when it is their turn to
-                // play. Players[0] is always the South player.
-                if (driver.players[0].getTurnToPlay()) {
+                // when it is their turn to play, kept up to date by the engine.
+                // Players[0] is always the South player.
+                if (engine.getPlayer(0).getTurnToPlay()) {
                     // If players[0] is human, respond appropriately to card
                     // click
-                    if (driver.players[0] instanceof Human) {
+                    if (engine.getPlayer(0) instanceof Human) {
                         Card c = b.getCard();
-                        if (c.getSuit() == Suit.SPADE)
-                            spadesPlayed = true;
-                        playedCards.set(0, c);
-                        middlePile.add(c);
+                        engine.play(c);
                         l1 = new JLabel(b.getIcon());
                         cardDisplaySouth.remove(b);
                         myHand0.remove(b);
@@ -1243,55 +1096,25 @@ public class GUI extends JFrame {
                             aMyHand0.setVisible(false);
                         }
                         centerSouth.add(l1, BorderLayout.CENTER);
-                        driver.players[0].getHand().remove(c);
                         playerS[0].setVisible(true);
-                        // If players[0] is a bot, call their playCard method
-                        // and display card
-                    } else if (driver.players[0] instanceof Bot) {
-                        Card c = ((Bot) driver.players[0]).playCard(middlePile);
-                        c.setScreenRes(screenResNum);
-                        if (c.getSuit() == Suit.SPADE)
-                            spadesPlayed = true;
-                        playedCards.set(0, c);
-                        middlePile.add(c);
-                        l1 = new JLabel(c.getImage());
-                        centerSouth.add(l1, BorderLayout.CENTER);
+                        // If players[0] is a bot, have it choose its card,
+                        // see playBot
+                    } else if (engine.getPlayer(0) instanceof Bot) {
+                        playBot(b);
+                        return;
                     }
 
-                    // Get ready for next player's turn
-                    turnNumber++;
-                    driver.players[0].setTurnToPlay(false);
-                    driver.players[1].setTurnToPlay(true);
-                    // If the next player is a human, check to see if there is
-                    // more than one human player
-                    // If more than one human, display nextPlayerReady button,
-                    // if only one human, display
-                    // Their hand
-                    if (driver.players[1] instanceof Human && turnNumber < 4) {
-                        if (numHumans == 1) {
-                            playerW[0].setVisible(false);
-                            for (CardButton aMyHand1 : myHand1) {
-                                aMyHand1.setVisible(true);
-                                aMyHand1.setEnabled(true);
-                            }
-                            playableCards(myHand1, middlePile);
-                            return;
-                        } else {
-                            nextPlayerReady.setVisible(true);
-                            return;
-                        }
-                    }
+                    // If the next player is a human, wait for their click
+                    if (waitForHuman())
+                        return;
                 }
                 // players[1] is always west player. Actions are same as for
                 // previous player
-                if (driver.players[1].getTurnToPlay() && turnNumber < 4) {
+                if (engine.getPlayer(1).getTurnToPlay() && !engine.isTrickComplete()) {
 
-                    if (driver.players[1] instanceof Human) {
+                    if (engine.getPlayer(1) instanceof Human) {
                         Card c = b.getCard();
-                        if (c.getSuit() == Suit.SPADE)
-                            spadesPlayed = true;
-                        playedCards.set(1, c);
-                        middlePile.add(c);
+                        engine.play(c);
                         l2 = new JLabel(b.getIcon());
                         for (int i = 0; i < wCardRow1.getComponentCount(); i++) {
                             if (((CardButton) wCardRow1.getComponent(i)).getCard().equals(c))
@@ -1310,46 +1133,20 @@ public class GUI extends JFrame {
                             aMyHand1.setVisible(false);
                         }
                         centerWest.add(l2, BorderLayout.CENTER);
-                        driver.players[1].getHand().remove(c);
                         playerW[0].setVisible(true);
-                    } else if (driver.players[1] instanceof Bot) {
-                        Card c = ((Bot) (driver.players[1])).playCard(middlePile);
-                        c.setScreenRes(screenResNum);
-                        if (c.getSuit() == Suit.SPADE)
-                            spadesPlayed = true;
-                        playedCards.set(1, c);
-                        middlePile.add(c);
-                        l2 = new JLabel(c.getImage());
-                        centerWest.add(l2, BorderLayout.CENTER);
-                    }
-                    turnNumber++;
-                    driver.players[1].setTurnToPlay(false);
-                    driver.players[2].setTurnToPlay(true);
-                    if (driver.players[2] instanceof Human && turnNumber < 4) {
-                        if (numHumans == 1) {
-                            playerN[0].setVisible(false);
-                            for (CardButton aMyHand2 : myHand2) {
-                                aMyHand2.setVisible(true);
-                                aMyHand2.setEnabled(true);
-                            }
-                            playableCards(myHand2, middlePile);
-
-                            return;
-                        } else {
-                            nextPlayerReady.setVisible(true);
-                            return;
-                        }
+                    } else if (engine.getPlayer(1) instanceof Bot) {
+                        playBot(b);
+                        return;
                     }
+                    if (waitForHuman())
+                        return;
                 }
                 // players[2] is always north player. Same actions as first
                 // player
-                if (driver.players[2].getTurnToPlay() && turnNumber < 4) {
-                    if (driver.players[2] instanceof Human) {
+                if (engine.getPlayer(2).getTurnToPlay() && !engine.isTrickComplete()) {
+                    if (engine.getPlayer(2) instanceof Human) {
                         Card c = b.getCard();
-                        if (c.getSuit() == Suit.SPADE)
-                            spadesPlayed = true;
-                        playedCards.set(2, c);
-                        middlePile.add(c);
+                        engine.play(c);
                         l3 = new JLabel(b.getIcon());
                         cardDisplayNorth.remove(b);
                         myHand2.remove(b);
@@ -1357,45 +1154,20 @@ public class GUI extends JFrame {
                             aMyHand2.setVisible(false);
                         }
                         centerNorth.add(l3, BorderLayout.CENTER);
-                        driver.players[2].getHand().remove(c);
                         playerN[0].setVisible(true);
-                    } else if (driver.players[2] instanceof Bot) {
-                        Card c = ((Bot) (driver.players[2])).playCard(middlePile);
-                        c.setScreenRes(screenResNum);
-                        if (c.getSuit() == Suit.SPADE)
-                            spadesPlayed = true;
-                        playedCards.set(2, c);
-                        middlePile.add(c);
-                        l3 = new JLabel(c.getImage());
-                        centerNorth.add(l3, BorderLayout.CENTER);
-                    }
-                    turnNumber++;
-                    driver.players[2].setTurnToPlay(false);
-                    driver.players[3].setTurnToPlay(true);
-                    if (driver.players[3] instanceof Human && turnNumber < 4) {
-                        if (numHumans == 1) {
-                            playerE[0].setVisible(false);
-                            for (CardButton aMyHand3 : myHand3) {
-                                aMyHand3.setVisible(true);
-                                aMyHand3.setEnabled(true);
-                            }
-                            playableCards(myHand3, middlePile);
-                            return;
-                        } else {
-                            nextPlayerReady.setVisible(true);
-                            return;
-                        }
+                    } else if (engine.getPlayer(2) instanceof Bot) {
+                        playBot(b);
+                        return;
                     }
+                    if (waitForHuman())
+                        return;
                 }
                 // players[3] is always east player. Actions the same as first
                 // player
-                if (driver.players[3].getTurnToPlay() && turnNumber < 4) {
-                    if (driver.players[3] instanceof Human) {
+                if (engine.getPlayer(3).getTurnToPlay() && !engine.isTrickComplete()) {
+                    if (engine.getPlayer(3) instanceof Human) {
                         Card c = b.getCard();
-                        if (c.getSuit() == Suit.SPADE)
-                            spadesPlayed = true;
-                        playedCards.set(3, c);
-                        middlePile.add(c);
+                        engine.play(c);
                         l4 = new JLabel(b.getIcon());
                         for (int i = 0; i < eCardRow1.getComponentCount(); i++) {
                             if (((CardButton) eCardRow1.getComponent(i)).getCard().equals(c))
@@ -1415,100 +1187,49 @@ public class GUI extends JFrame {
                             aMyHand3.setVisible(false);
                         }
                         centerEast.add(l4, BorderLayout.CENTER);
-                        driver.players[3].getHand().remove(c);
                         playerE[0].setVisible(true);
-                    } else if (driver.players[3] instanceof Bot) {
-                        Card c = ((Bot) (driver.players[3])).playCard(middlePile);
-                        c.setScreenRes(screenResNum);
-                        if (c.getSuit() == Suit.SPADE)
-                            spadesPlayed = true;
-                        playedCards.set(3, c);
-                        middlePile.add(c);
-                        l4 = new JLabel(c.getImage());
-                        centerEast.add(l4, BorderLayout.CENTER);
-                    }
-                    turnNumber++;
-                    driver.players[3].setTurnToPlay(false);
-                    driver.players[0].setTurnToPlay(true);
-                    if (driver.players[0] instanceof Human && turnNumber < 4) {
-                        if (numHumans == 1) {
-                            playerS[0].setVisible(false);
-                            for (CardButton aMyHand0 : myHand0) {
-                                aMyHand0.setVisible(true);
-                                aMyHand0.setEnabled(true);
-                            }
-                            playableCards(myHand0, middlePile);
-                            return;
-                        } else {
-                            nextPlayerReady.setVisible(true);
-                            return;
-                        }
+                    } else if (engine.getPlayer(3) instanceof Bot) {
+                        playBot(b);
+                        return;
                     }
+                    if (waitForHuman())
+                        return;
                 }
             } // End of while loop
 
-            // evaluate winner of hand
-            winner = driver.determineWinner(middlePile);
-
-            // Determine which player played the winning card
-            if (winner.equals(playedCards.get(0)))
-
-            {
+            // Determine which player played the winning card, the engine
+            // found the winner when the fourth card was played
+            int winner = engine.getTrickWinner();
+            if (winner == 0) {
                 // If a human won, display their name as winner
-                if (driver.players[0] instanceof Human) {
-                    roundWinner.setText(driver.playerAry[0] + " wins!");
+                if (engine.getPlayer(0) instanceof Human) {
+                    roundWinner.setText(engine.getName(0) + " wins!");
                     // If bot won, display direction of bot as winner
                 } else {
                     roundWinner.setText("South Bot wins!");
                 }
-                playerS[3].setText("Tricks Taken: " + ++southTricksTaken);
-                nextPlayer = 0;
-                driver.players[0].setTurnToPlay(true);
-                driver.players[1].setTurnToPlay(false);
-                driver.players[2].setTurnToPlay(false);
-                driver.players[3].setTurnToPlay(false);
-            } else if (winner.equals(playedCards.get(1)))
-
-            {
-                if (driver.players[1] instanceof Human) {
-                    roundWinner.setText(driver.playerAry[1] + " wins!");
+                playerS[3].setText("Tricks Taken: " + engine.getTricksTaken(0));
+            } else if (winner == 1) {
+                if (engine.getPlayer(1) instanceof Human) {
+                    roundWinner.setText(engine.getName(1) + " wins!");
                 } else {
                     roundWinner.setText("West Bot wins!");
                 }
-                playerW[3].setText("Tricks Taken: " + ++westTricksTaken);
-                nextPlayer = 1;
-                driver.players[1].setTurnToPlay(true);
-                driver.players[0].setTurnToPlay(false);
-                driver.players[2].setTurnToPlay(false);
-                driver.players[3].setTurnToPlay(false);
-            } else if (winner.equals(playedCards.get(2)))
-
-            {
-                if (driver.players[2] instanceof Human) {
-                    roundWinner.setText(driver.playerAry[2] + " wins!");
+                playerW[3].setText("Tricks Taken: " + engine.getTricksTaken(1));
+            } else if (winner == 2) {
+                if (engine.getPlayer(2) instanceof Human) {
+                    roundWinner.setText(engine.getName(2) + " wins!");
                 } else {
                     roundWinner.setText("North Bot wins!");
                 }
-                playerN[3].setText("Tricks Taken: " + ++northTricksTaken);
-                nextPlayer = 2;
-                driver.players[2].setTurnToPlay(true);
-                driver.players[1].setTurnToPlay(false);
-                driver.players[0].setTurnToPlay(false);
-                driver.players[3].setTurnToPlay(false);
-            } else if (winner.equals(playedCards.get(3)))
-
-            {
-                if (driver.players[3] instanceof Human) {
-                    roundWinner.setText(driver.playerAry[3] + " wins!");
+                playerN[3].setText("Tricks Taken: " + engine.getTricksTaken(2));
+            } else if (winner == 3) {
+                if (engine.getPlayer(3) instanceof Human) {
+                    roundWinner.setText(engine.getName(3) + " wins!");
                 } else {
                     roundWinner.setText("East Bot wins!");
                 }
-                playerE[3].setText("TricksTaken: " + ++eastTricksTaken);
-                nextPlayer = 3;
-                driver.players[3].setTurnToPlay(true);
-                driver.players[1].setTurnToPlay(false);
-                driver.players[2].setTurnToPlay(false);
-                driver.players[0].setTurnToPlay(false);
+                playerE[3].setText("TricksTaken: " + engine.getTricksTaken(3));
             }
 
             // update card images
@@ -1518,6 +1239,94 @@ public class GUI extends JFrame {
             nextTurnButton.setVisible(true);
 
         }
+
+        /**
+         * Has the engine play the card of the bot whose turn it is. A bot may
+         * search for a while, so it plays on a SwingWorker and the window
+         * stays responsive. When it is done its card is displayed and the
+         * round goes on with the next seat.
+         *
+         * @param b the CardButton the round was started with
+         */
+        private void playBot(CardButton b) {
+            int seat = engine.getTurn();
+            new SwingWorker<Card, Void>() {
+                @Override
+                protected Card doInBackground() {
+                    return engine.playBot();
+                }
+
+                @Override
+                protected void done() {
+                    Card c;
+                    try {
+                        c = get();
+                    } catch (InterruptedException | ExecutionException ex) {
+                        throw new IllegalStateException("The bot could not play", ex);
+                    }
+                    JLabel l = new JLabel(CardImages.get(c, screenResNum));
+                    JPanel center;
+                    if (seat == 0) {
+                        l1 = l;
+                        center = centerSouth;
+                    } else if (seat == 1) {
+                        l2 = l;
+                        center = centerWest;
+                    } else if (seat == 2) {
+                        l3 = l;
+                        center = centerNorth;
+                    } else {
+                        l4 = l;
+                        center = centerEast;
+                    }
+                    center.add(l, BorderLayout.CENTER);
+                    center.revalidate();
+                    center.repaint();
+                    if (!waitForHuman())
+                        playTurns(b);
+                }
+            }.execute();
+        }
+
+        /**
+         * The engine has moved the turn to the next player. If the next player
+         * is a human, check to see if there is more than one human player. If
+         * more than one human, display nextPlayerReady button, if only one
+         * human, display their hand.
+         *
+         * @return true if the round waits for a human, false if it goes on
+         */
+        private boolean waitForHuman() {
+            int seat = engine.getTurn();
+            if (engine.isTrickComplete() || !(engine.getPlayer(seat) instanceof Human))
+                return false;
+            if (numHumans > 1) {
+                nextPlayerReady.setVisible(true);
+                return true;
+            }
+            JLabel[] player;
+            ArrayList<CardButton> hand;
+            if (seat == 0) {
+                player = playerS;
+                hand = myHand0;
+            } else if (seat == 1) {
+                player = playerW;
+                hand = myHand1;
+            } else if (seat == 2) {
+                player = playerN;
+                hand = myHand2;
+            } else {
+                player = playerE;
+                hand = myHand3;
+            }
+            player[0].setVisible(false);
+            for (CardButton aMyHand : hand) {
+                aMyHand.setVisible(true);
+                aMyHand.setEnabled(true);
+            }
+            playableCards(hand, engine.getTrick());
+            return true;
+        }
     }
 
     /**
@@ -1535,54 +1344,34 @@ public class GUI extends JFrame {
             // Hide nextTurn button
             nextTurnButton.setVisible(false);
 
-            // Reset round variables
-            middlePile.clear();
+            // Reset round variables, scores the hand after the last round
+            engine.nextTrick();
             roundWinner.setText("");
             centerSouth.remove(l1);
             centerWest.remove(l2);
             centerNorth.remove(l3);
             centerEast.remove(l4);
-            turnNumber = 0;
-            playedCards.set(0, null);
-            playedCards.set(1, null);
-            playedCards.set(2, null);
-            playedCards.set(3, null);
 
             // Check to see if hand is over
-            if (driver.players[0].getHand().size() == 0) {
+            if (engine.getPhase() != SpadesEngine.Phase.PLAY) {
                 // Check to see who has the most tricks
                 // Display the winner
                 // Display score in JTable
                 // Add button for next hand
-                model.setValueAt(((Integer) tricksBidNS).toString(), 0, 1);
-                model.setValueAt(((Integer) (tricksBidEW)).toString(), 0, 2);
-                model.setValueAt(((Integer) (southTricksTaken + northTricksTaken)).toString(), 1, 1);
-                model.setValueAt(((Integer) (eastTricksTaken + westTricksTaken)).toString(), 1, 2);
-                sandbagsNS = sandBags(northTricksBid, southTricksBid, northTricksTaken, southTricksTaken);
-                sandbagsEW = sandBags(eastTricksBid, westTricksBid, westTricksTaken, eastTricksTaken);
-                model.setValueAt(((Integer) sandbagsNS).toString(), 2, 1);
-                model.setValueAt(((Integer) sandbagsEW).toString(), 2, 2);
-                totalBagsNS += sandbagsNS;
-                totalBagsEW += sandbagsEW;
-
-                if (totalBagsNS >= 10) {
-                    scoreNS -= 100;
-                    totalBagsNS = 0;
-                }
-                if (totalBagsEW >= 10) {
-                    scoreEW -= 100;
-                    totalBagsEW = 0;
-                }
-                model.setValueAt(((Integer) totalBagsNS).toString(), 3, 1);
-                model.setValueAt(((Integer) totalBagsEW).toString(), 3, 2);
-                ptsScoredNS = pointsScored(northTricksBid, southTricksBid, northTricksTaken, southTricksTaken);
-                ptsScoredEW = pointsScored(eastTricksBid, westTricksBid, westTricksTaken, eastTricksTaken);
-                model.setValueAt(((Integer) ptsScoredNS).toString(), 4, 1);
-                model.setValueAt(((Integer) ptsScoredEW).toString(), 4, 2);
-                scoreNS += ptsScoredNS;
-                scoreEW += ptsScoredEW;
-                model.setValueAt(((Integer) scoreNS).toString(), 5, 1);
-                model.setValueAt(((Integer) scoreEW).toString(), 5, 2);
+                int ns = SpadesEngine.NORTH_SOUTH;
+                int ew = SpadesEngine.EAST_WEST;
+                model.setValueAt(((Integer) (engine.getBid(0) + engine.getBid(2))).toString(), 0, 1);
+                model.setValueAt(((Integer) (engine.getBid(1) + engine.getBid(3))).toString(), 0, 2);
+                model.setValueAt(((Integer) (engine.getTricksTaken(0) + engine.getTricksTaken(2))).toString(), 1, 1);
+                model.setValueAt(((Integer) (engine.getTricksTaken(1) + engine.getTricksTaken(3))).toString(), 1, 2);
+                model.setValueAt(((Integer) engine.getHandBags(ns)).toString(), 2, 1);
+                model.setValueAt(((Integer) engine.getHandBags(ew)).toString(), 2, 2);
+                model.setValueAt(((Integer) engine.getTotalBags(ns)).toString(), 3, 1);
+                model.setValueAt(((Integer) engine.getTotalBags(ew)).toString(), 3, 2);
+                model.setValueAt(((Integer) engine.getHandPoints(ns)).toString(), 4, 1);
+                model.setValueAt(((Integer) engine.getHandPoints(ew)).toString(), 4, 2);
+                model.setValueAt(((Integer) engine.getScore(ns)).toString(), 5, 1);
+                model.setValueAt(((Integer) engine.getScore(ew)).toString(), 5, 2);
 
                 constraints.gridx = 0;
                 constraints.gridy = 0;
@@ -1592,13 +1381,13 @@ public class GUI extends JFrame {
                 centerPanel2.add(scoring, constraints);
 
                 JLabel endOfGameWinner;
-                if (scoreNS >= 500) {
+                if (engine.getWinningTeam() == ns) {
                     endOfGameWinner = new JLabel("Congratuations N & S! You win!");
                     endOfGameWinner.setFont(new Font("Sans Serif", Font.BOLD, 30));
                     constraints.gridx = 0;
                     constraints.gridy = 3;
                     centerPanel2.add(endOfGameWinner, constraints);
-                } else if (scoreEW >= 500) {
+                } else if (engine.getWinningTeam() == ew) {
                     endOfGameWinner = new JLabel("Congratuations E & W! You win!");
                     endOfGameWinner.setFont(new Font("Sans Serif", Font.BOLD, 30));
                     constraints.gridx = 0;
@@ -1625,40 +1414,41 @@ public class GUI extends JFrame {
             // a PlayCard button. nextPlayer == 0 corresponds to south, 1 to
             // west, 2 to north and
             // 3 to east as always
+            int nextPlayer = engine.getTurn();
             if (nextPlayer == 0) {
-                if (driver.players[0] instanceof Human) {
+                if (engine.getPlayer(0) instanceof Human) {
                     playerS[0].setVisible(false);
                     for (CardButton aMyHand0 : myHand0) {
                         aMyHand0.setVisible(true);
                     }
-                    playableCards(myHand0, middlePile);
+                    playableCards(myHand0, engine.getTrick());
                     return;
                 }
             } else if (nextPlayer == 1) {
-                if (driver.players[1] instanceof Human) {
+                if (engine.getPlayer(1) instanceof Human) {
                     playerW[0].setVisible(false);
                     for (CardButton aMyHand1 : myHand1) {
                         aMyHand1.setVisible(true);
                     }
-                    playableCards(myHand1, middlePile);
+                    playableCards(myHand1, engine.getTrick());
                     return;
                 }
             } else if (nextPlayer == 2) {
-                if (driver.players[2] instanceof Human) {
+                if (engine.getPlayer(2) instanceof Human) {
                     playerN[0].setVisible(false);
                     for (CardButton aMyHand2 : myHand2) {
                         aMyHand2.setVisible(true);
                     }
-                    playableCards(myHand2, middlePile);
+                    playableCards(myHand2, engine.getTrick());
                     return;
                 }
             } else if (nextPlayer == 3) {
-                if (driver.players[3] instanceof Human) {
+                if (engine.getPlayer(3) instanceof Human) {
                     playerE[0].setVisible(false);
                     for (CardButton aMyHand3 : myHand3) {
                         aMyHand3.setVisible(true);
                     }
-                    playableCards(myHand3, middlePile);
+                    playableCards(myHand3, engine.getTrick());
                     return;
                 }
             }
@@ -1681,7 +1471,9 @@ public class GUI extends JFrame {
          */
         public void actionPerformed(ActionEvent e) {
             dispose();
-            GUI gui = new GUI(screenResNum, scoreNS, scoreEW, totalBagsNS, totalBagsEW);
+            GUI gui = new GUI(screenResNum, engine.getScore(SpadesEngine.NORTH_SOUTH),
+                    engine.getScore(SpadesEngine.EAST_WEST), engine.getTotalBags(SpadesEngine.NORTH_SOUTH),
+                    engine.getTotalBags(SpadesEngine.EAST_WEST), engine.getDriver().getContext());
             gui.display();
         }
     }
@@ -1701,34 +1493,34 @@ public class GUI extends JFrame {
          */
         public void actionPerformed(ActionEvent e) {
             nextPlayerReady.setVisible(false);
-            if (driver.players[0].getTurnToPlay()) {
+            if (engine.getPlayer(0).getTurnToPlay()) {
                 playerS[0].setVisible(false);
                 for (CardButton aMyHand0 : myHand0) {
                     aMyHand0.setVisible(true);
                     aMyHand0.setEnabled(true);
                 }
-                playableCards(myHand0, middlePile);
-            } else if (driver.players[1].getTurnToPlay()) {
+                playableCards(myHand0, engine.getTrick());
+            } else if (engine.getPlayer(1).getTurnToPlay()) {
                 playerW[0].setVisible(false);
                 for (CardButton aMyHand1 : myHand1) {
                     aMyHand1.setVisible(true);
                     aMyHand1.setEnabled(true);
                 }
-                playableCards(myHand1, middlePile);
-            } else if (driver.players[2].getTurnToPlay()) {
+                playableCards(myHand1, engine.getTrick());
+            } else if (engine.getPlayer(2).getTurnToPlay()) {
                 playerN[0].setVisible(false);
                 for (CardButton aMyHand2 : myHand2) {
                     aMyHand2.setVisible(true);
                     aMyHand2.setEnabled(true);
                 }
-                playableCards(myHand2, middlePile);
-            } else if (driver.players[3].getTurnToPlay()) {
+                playableCards(myHand2, engine.getTrick());
+            } else if (engine.getPlayer(3).getTurnToPlay()) {
                 playerE[0].setVisible(false);
                 for (CardButton aMyHand3 : myHand3) {
                     aMyHand3.setVisible(true);
                     aMyHand3.setEnabled(true);
                 }
-                playableCards(myHand3, middlePile);
+                playableCards(myHand3, engine.getTrick());
             }
         }
 
@@ -1810,11 +1602,12 @@ public class GUI extends JFrame {
     private class NewGameEvent implements ActionListener {
         /**
          * Disposes of current GUI window and opens a new one, not carrying the
-         * score or sand bags over. Does carry over the screen resolution.
+         * score or sand bags over. Does carry over the screen resolution and
+         * the players in each seat.
          */
         public void actionPerformed(ActionEvent e) {
             dispose();
-            GUI gui = new GUI(screenResNum);
+            GUI gui = new GUI(screenResNum, new GameContext(engine.getDriver().playerAry));
             gui.display();
         }
     }
@@ -0,0 +1,196 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * GameContext holds the state that belongs to one game: who sits in each seat,
+ * the memory of the cards played this hand and the random number generator
+ * used to shuffle and to pick the first leader. The driver and every bot of a
+ * game share one context, and nothing in it is static, so any number of games
+ * can run at the same time on different threads without seeing each other's
+ * cards.
+ *
+ * A context is not thread safe itself, each game should only be played on one
+ * thread at a time.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class GameContext {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The seat of a bot that plays by the rules of Bot.
+	 */
+	public static final String BOT = "Bot";
+
+	/**
+	 * The kinds of bots that search for a card within a time per card. Their
+	 * seats are the kind, the milliseconds per card and optionally the number
+	 * of threads, such as "MonteCarloBot:300" or "IsmctsBot:100:2", see
+	 * searchBot.
+	 */
+	public static final String MONTE_CARLO_BOT = "MonteCarloBot", ISMCTS_BOT = "IsmctsBot";
+	private static final String[] SEARCH_BOTS = { MONTE_CARLO_BOT, ISMCTS_BOT };
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	private final String[] seats; // a kind of bot or the name of the human in each seat.
+	private final SplittableRandom random; // the random numbers used by this game.
+	private Memory memory; // the cards played so far this hand.
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Creates a context for a new game with an unseeded random number
+	 * generator.
+	 *
+	 * @param seats
+	 *            "Bot" or a searching bot (see searchBot) for every seat
+	 *            played by a bot, otherwise the name of the human, in the
+	 *            order South, West, North, East
+	 */
+	public GameContext(String[] seats) {
+		this(seats, new SplittableRandom());
+	}
+
+	/**
+	 * Creates a context for a new game whose shuffles and leaders are decided
+	 * by a seed, so the same seed plays out the same game.
+	 *
+	 * @param seats
+	 *            "Bot" or a searching bot (see searchBot) for every seat
+	 *            played by a bot, otherwise the name of the human, in the
+	 *            order South, West, North, East
+	 * @param seed
+	 *            The seed of the random number generator.
+	 */
+	public GameContext(String[] seats, long seed) {
+		this(seats, new SplittableRandom(seed));
+	}
+
+	/**
+	 * Creates a context for a new game using a random number generator.
+	 *
+	 * @param seats
+	 *            "Bot" or a searching bot (see searchBot) for every seat
+	 *            played by a bot, otherwise the name of the human, in the
+	 *            order South, West, North, East
+	 * @param random
+	 *            The random number generator of the game.
+	 */
+	public GameContext(String[] seats, SplittableRandom random) {
+		if (seats == null || seats.length != 4)
+			throw new IllegalArgumentException("A game needs exactly 4 seats");
+		this.seats = seats.clone();
+		this.random = random;
+		memory = new Memory();
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Forgets the cards played, called before every hand is dealt.
+	 */
+	public void newHand() {
+		memory = new Memory();
+	}
+
+	/**
+	 * Returns the memory of the cards played so far this hand.
+	 *
+	 * @return the memory of this game
+	 */
+	public Memory getMemory() {
+		return memory;
+	}
+
+	/**
+	 * Returns who sits in a seat.
+	 *
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @return the kind of bot if the seat is a bot, otherwise the name of the
+	 *         human
+	 */
+	public String getSeat(int seat) {
+		return seats[seat];
+	}
+
+	/**
+	 * Returns true if a seat is played by a bot.
+	 *
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @return true for a bot, false for a human
+	 */
+	public boolean isBot(int seat) {
+		if (seats[seat].equals(BOT))
+			return true;
+		for (String kind : SEARCH_BOTS) {
+			if (seats[seat].startsWith(kind + ":"))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the seat of a bot that searches for a card.
+	 *
+	 * @param kind
+	 *            One of the kinds of searching bots, such as MONTE_CARLO_BOT
+	 * @param budgetMillis
+	 *            The milliseconds the bot may take to choose a card.
+	 * @param threads
+	 *            The number of threads it searches on, 0 for every core
+	 * @return the seat to give a context
+	 */
+	public static String searchBot(String kind, long budgetMillis, int threads) {
+		if (!Arrays.asList(SEARCH_BOTS).contains(kind))
+			throw new IllegalArgumentException("No bot searches by " + kind);
+		return kind + ":" + budgetMillis + (threads > 0 ? ":" + threads : "");
+	}
+
+	/**
+	 * Makes the bot of a seat played by a bot.
+	 *
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @return the bot playing the seat in this game
+	 */
+	public Bot newBot(int seat) {
+		if (!isBot(seat))
+			throw new IllegalArgumentException("Seat " + seat + " is played by " + seats[seat]);
+		String[] parts = seats[seat].split(":");
+		if (parts.length == 1)
+			return new Bot(this);
+		long budgetMillis = Long.parseLong(parts[1]);
+		int threads = parts.length > 2 ? Integer.parseInt(parts[2]) : Runtime.getRuntime().availableProcessors();
+		switch (parts[0]) {
+		case MONTE_CARLO_BOT:
+			return new MonteCarloBot(this, seat, budgetMillis, threads);
+		case ISMCTS_BOT:
+			return new IsmctsBot(this, seat, budgetMillis, threads);
+		default:
+			throw new IllegalArgumentException("No bot searches by " + parts[0]);
+		}
+	}
+
+	/**
+	 * Returns the random number generator of this game.
+	 *
+	 * @return the random number generator
+	 */
+	public SplittableRandom getRandom() {
+		return random;
+	}
+}
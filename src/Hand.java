@@ -1,9 +1,8 @@
-import java.util.ArrayList;
-import java.util.Collections;
-
 /**
- * Hand is a list of 13 card objects, used by any human or bot, it contains
- * methods to check the status and manipulate the cards in the hand.
+ * Hand is a set of 13 card objects, used by any human or bot, it contains
+ * methods to check the status and manipulate the cards in the hand. The cards
+ * are kept in a CardSet, so the hand is always sorted and checking for or
+ * removing a card does not have to search the hand.
  * 
  * @author Bob Laskowski
  * @author Peter Klein
@@ -15,17 +14,28 @@ public class Hand {
 	 * INSTANCE VARIABLES
 	 */
 
-	private final ArrayList<Card> hand; // arrayList of 13 cards.
+	private final CardSet hand; // bits of the 13 cards in the hand.
 
 	/*
 	 * CONSTRUCTORS
 	 */
 
 	/**
-	 * creates a new array list that can store Card objects.
+	 * creates a new empty hand that can store Card objects.
 	 */
 	public Hand() {
-		hand = new ArrayList<>();
+		hand = new CardSet();
+	}
+
+	/**
+	 * creates a new hand holding the cards of a mask, used by the deck to deal
+	 * a hand at once.
+	 * 
+	 * @param bits
+	 *            The mask of card ordinals in the hand, see CardSet
+	 */
+	Hand(long bits) {
+		hand = new CardSet(bits);
 	}
 
 	/*
@@ -33,21 +43,19 @@ public class Hand {
 	 */
 
 	/**
-	 * Adds a card object to the hand and sorts the hand as the card is added
+	 * Adds a card object to the hand, the hand stays sorted as the card is
+	 * added
 	 * 
 	 * @param card
 	 *            Card to be added to the hand.
 	 */
 	public void add(Card card) {
-		int i = hand.size();
-		if (i < 13)
-			hand.add(i, card);
-		Collections.sort(hand);
+		if (hand.size() < 13)
+			hand.add(card);
 	}
 
 	/**
-	 * Removes a specific card object from the hand using arrayList's remove
-	 * method
+	 * Removes a specific card object from the hand
 	 * 
 	 * @param card
 	 *            Card to be removed from the hand.
@@ -58,29 +66,28 @@ public class Hand {
 	}
 
 	/**
-	 * Removes a card object from the hand, based on position using arrayList's
-	 * methods
+	 * Removes a card object from the hand, based on position
 	 * 
 	 * @param position
 	 *            The position to be removed from the array list
 	 * @return The Card that is removed
 	 */
 	public Card remove(int position) {
-		Card returnCard = hand.get(position);
-		hand.remove(returnCard);
+		Card returnCard = getCardAtPosition(position);
+		remove(returnCard);
 		return returnCard;
 	}
 
 	/**
-	 * Returns a card at a specific position in the hand using arrayList's get
-	 * method
+	 * Returns a card at a specific position in the hand, 0 being the lowest
+	 * card
 	 * 
 	 * @param position
 	 *            The position to be returned from the hand
 	 * @return The card at the given position
 	 */
 	Card getCardAtPosition(int position) {
-		return hand.get(position);
+		return Card.of(hand.ordinalAt(position));
 	}
 
 	/**
@@ -91,12 +98,27 @@ public class Hand {
 	 * @return The number of spades in the hand
 	 */
 	int getNumSpades() {
-		int numSpades = 0;
-		for (Card aHand : hand) {
-			if (aHand.getSuit().equals(Suit.SPADE))
-				numSpades++;
-		}
-		return numSpades;
+		return hand.count(Suit.SPADE);
+	}
+
+	/**
+	 * Returns the number of cards of a suit in the hand
+	 * 
+	 * @param suit
+	 *            The suit to count.
+	 * @return The number of cards of that suit in the hand
+	 */
+	int getNumOfSuit(Suit suit) {
+		return hand.count(suit);
+	}
+
+	/**
+	 * Returns the bits of the cards in the hand, see CardSet
+	 * 
+	 * @return the mask of card ordinals in the hand
+	 */
+	long getBits() {
+		return hand.getBits();
 	}
 
 	/**
@@ -114,12 +136,7 @@ public class Hand {
 	 * @return True if it is in the hand, else false.
 	 */
 	public boolean contains(Card c) {
-		for (Card aHand : hand) {
-			if (aHand.getNumber() == c.getNumber() && aHand.getSuit() == c.getSuit()) {
-				return true;
-			}
-		}
-		return false;
+		return hand.contains(c);
 	}
 
 	/**
@@ -0,0 +1,329 @@
+/**
+ * HandIndexer numbers 13 card hands so that hands that only differ by swapping
+ * hearts, clubs and diamonds get the same number. Those three suits play the
+ * same in spades, only spades are special, so anything worked out for one
+ * hand (a bid, a number of tricks) holds for the up to 6 hands made by
+ * swapping its other suits. The numbers of the classes of such hands run from
+ * 0 to CLASSES - 1 with none missing, so a table of them can be a plain array
+ * indexed by the number instead of a hash map.
+ *
+ * The canonical hand of a class has its longest side suit in hearts, the next
+ * in clubs and the shortest in diamonds, with suits of the same length
+ * ordered by their cards. The number of a hand is counted from the spades it
+ * has, then the lengths of its side suits, then which cards it has in each of
+ * them, each set of cards of a suit numbered in colex order: a set comes
+ * before another if its highest card is lower, or they share the highest and
+ * the rest of it comes first.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class HandIndexer {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The number of cards in a hand.
+	 */
+	private static final int HAND_SIZE = 13;
+
+	/**
+	 * The blocks of the three side suits, see Card.suitIndex, and the block of
+	 * spades.
+	 */
+	private static final int[] SIDE_SUITS = { Card.suitIndex(Suit.HEART), Card.suitIndex(Suit.CLUB),
+			Card.suitIndex(Suit.DIAMOND) };
+	private static final int SPADES = Card.suitIndex(Suit.SPADE);
+
+	/**
+	 * Binomial coefficients, BINOMIAL[n][k] ways to choose k of n.
+	 */
+	private static final long[][] BINOMIAL = new long[HAND_SIZE + 1][HAND_SIZE + 1];
+
+	/**
+	 * For each number of side suit cards, the lengths the three side suits
+	 * can have from longest to shortest, the number of the first hand with
+	 * each of them, and the number of ways to hold that many side suit cards.
+	 */
+	private static final int[][][] LENGTHS = new int[HAND_SIZE + 1][][];
+	private static final long[][] LENGTH_OFFSET = new long[HAND_SIZE + 1][];
+	private static final long[] SIDE_WAYS = new long[HAND_SIZE + 1];
+
+	/**
+	 * The number of the first hand with each number of spades.
+	 */
+	private static final long[] SPADE_OFFSET = new long[HAND_SIZE + 2];
+
+	/**
+	 * The number of classes of hands, every number is below this.
+	 */
+	public static final long CLASSES;
+
+	static {
+		for (int n = 0; n <= HAND_SIZE; n++) {
+			BINOMIAL[n][0] = 1;
+			for (int k = 1; k <= n; k++)
+				BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+		}
+		for (int n = 0; n <= HAND_SIZE; n++) {
+			int count = 0;
+			int[][] lengths = new int[HAND_SIZE * HAND_SIZE][];
+			for (int a = Math.min(n, HAND_SIZE); a >= 0; a--) {
+				for (int b = Math.min(a, n - a); b >= 0; b--) {
+					int c = n - a - b;
+					if (c <= b)
+						lengths[count++] = new int[] { a, b, c };
+				}
+			}
+			LENGTHS[n] = new int[count][];
+			LENGTH_OFFSET[n] = new long[count];
+			long offset = 0;
+			for (int i = 0; i < count; i++) {
+				LENGTHS[n][i] = lengths[i];
+				LENGTH_OFFSET[n][i] = offset;
+				offset += ways(lengths[i]);
+			}
+			SIDE_WAYS[n] = offset;
+		}
+		for (int s = 0; s <= HAND_SIZE; s++)
+			SPADE_OFFSET[s + 1] = SPADE_OFFSET[s] + BINOMIAL[HAND_SIZE][s] * SIDE_WAYS[HAND_SIZE - s];
+		CLASSES = SPADE_OFFSET[HAND_SIZE + 1];
+	}
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Only static methods, no HandIndexer objects are made.
+	 */
+	private HandIndexer() {
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the number of the class of a hand.
+	 *
+	 * @param hand
+	 *            A hand of 13 cards.
+	 * @return the number of its class, 0 to CLASSES - 1
+	 */
+	public static long index(Hand hand) {
+		return index(hand.getBits());
+	}
+
+	/**
+	 * Returns the number of the class of a hand.
+	 *
+	 * @param hand
+	 *            The mask of a hand of 13 cards, see CardSet
+	 * @return the number of its class, 0 to CLASSES - 1
+	 */
+	public static long index(long hand) {
+		if (Long.bitCount(hand & CardSet.ALL) != HAND_SIZE)
+			throw new IllegalArgumentException("A hand has 13 cards");
+		int spades = suit(hand, SPADES);
+		int s = Integer.bitCount(spades);
+		int[] keys = sortedSides(hand);
+		int a = keys[0] >>> 16, b = keys[1] >>> 16, c = keys[2] >>> 16;
+		long x = keys[0] & 0xFFFF, y = keys[1] & 0xFFFF, z = keys[2] & 0xFFFF;
+		long wb = BINOMIAL[HAND_SIZE][b], wc = BINOMIAL[HAND_SIZE][c];
+
+		long side;
+		if (a == b && b == c)
+			side = x * (x + 1) * (x + 2) / 6 + y * (y + 1) / 2 + z;
+		else if (a == b)
+			side = (x * (x + 1) / 2 + y) * wc + z;
+		else if (b == c)
+			side = x * (wb * (wb + 1) / 2) + y * (y + 1) / 2 + z;
+		else
+			side = (x * wb + y) * wc + z;
+
+		int n = HAND_SIZE - s;
+		return SPADE_OFFSET[s] + colex(spades) * SIDE_WAYS[n] + LENGTH_OFFSET[n][lengthIndex(n, a, b)] + side;
+	}
+
+	/**
+	 * Returns the canonical hand of a class.
+	 *
+	 * @param index
+	 *            The number of the class, 0 to CLASSES - 1
+	 * @return the mask of the canonical hand, see CardSet
+	 */
+	public static long unindex(long index) {
+		if (index < 0 || index >= CLASSES)
+			throw new IllegalArgumentException("No class of hands has number " + index);
+		int s = 0;
+		while (SPADE_OFFSET[s + 1] <= index)
+			s++;
+		int n = HAND_SIZE - s;
+		long rest = index - SPADE_OFFSET[s];
+		long hand = (long) subset(rest / SIDE_WAYS[n], s) << (SPADES * CardSet.SUIT_SIZE);
+		rest %= SIDE_WAYS[n];
+
+		int l = LENGTHS[n].length - 1;
+		while (LENGTH_OFFSET[n][l] > rest)
+			l--;
+		rest -= LENGTH_OFFSET[n][l];
+		int a = LENGTHS[n][l][0], b = LENGTHS[n][l][1], c = LENGTHS[n][l][2];
+		long wb = BINOMIAL[HAND_SIZE][b], wc = BINOMIAL[HAND_SIZE][c];
+
+		long x, y, z;
+		if (a == b && b == c) {
+			x = largest(rest, 3);
+			rest -= x * (x + 1) * (x + 2) / 6;
+			y = largest(rest, 2);
+			z = rest - y * (y + 1) / 2;
+		} else if (a == b) {
+			z = rest % wc;
+			rest /= wc;
+			x = largest(rest, 2);
+			y = rest - x * (x + 1) / 2;
+		} else if (b == c) {
+			long pairs = wb * (wb + 1) / 2;
+			x = rest / pairs;
+			rest %= pairs;
+			y = largest(rest, 2);
+			z = rest - y * (y + 1) / 2;
+		} else {
+			z = rest % wc;
+			rest /= wc;
+			y = rest % wb;
+			x = rest / wb;
+		}
+		hand |= (long) subset(x, a) << (SIDE_SUITS[0] * CardSet.SUIT_SIZE);
+		hand |= (long) subset(y, b) << (SIDE_SUITS[1] * CardSet.SUIT_SIZE);
+		hand |= (long) subset(z, c) << (SIDE_SUITS[2] * CardSet.SUIT_SIZE);
+		return hand;
+	}
+
+	/**
+	 * Returns the canonical hand of the class of a hand, the hand with its
+	 * side suits swapped so the longest is in hearts and the shortest in
+	 * diamonds.
+	 *
+	 * @param hand
+	 *            The mask of a hand, see CardSet
+	 * @return the mask of the canonical hand
+	 */
+	public static long canonical(long hand) {
+		int[] keys = sortedSides(hand);
+		long canonical = hand & CardSet.suitMask(Suit.SPADE);
+		for (int i = 0; i < 3; i++)
+			canonical |= (long) subset(keys[i] & 0xFFFF, keys[i] >>> 16) << (SIDE_SUITS[i] * CardSet.SUIT_SIZE);
+		return canonical;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Returns the number of ways to hold side suits of some lengths, counting
+	 * the same cards in suits of the same length once.
+	 */
+	private static long ways(int[] lengths) {
+		long wa = BINOMIAL[HAND_SIZE][lengths[0]];
+		long wb = BINOMIAL[HAND_SIZE][lengths[1]];
+		long wc = BINOMIAL[HAND_SIZE][lengths[2]];
+		if (lengths[0] == lengths[1] && lengths[1] == lengths[2])
+			return wa * (wa + 1) * (wa + 2) / 6;
+		if (lengths[0] == lengths[1])
+			return wa * (wa + 1) / 2 * wc;
+		if (lengths[1] == lengths[2])
+			return wa * (wb * (wb + 1) / 2);
+		return wa * wb * wc;
+	}
+
+	/**
+	 * Returns the position of side suit lengths in LENGTHS.
+	 */
+	private static int lengthIndex(int n, int a, int b) {
+		int[][] lengths = LENGTHS[n];
+		for (int i = 0; i < lengths.length; i++) {
+			if (lengths[i][0] == a && lengths[i][1] == b)
+				return i;
+		}
+		throw new IllegalStateException("No side suit lengths " + a + ", " + b);
+	}
+
+	/**
+	 * Returns the 13 bits of a suit of a hand.
+	 */
+	private static int suit(long hand, int suitIndex) {
+		return (int) (hand >>> (suitIndex * CardSet.SUIT_SIZE) & CardSet.SUIT_BITS);
+	}
+
+	/**
+	 * Returns a key for each side suit of a hand, its length in the high 16
+	 * bits and the colex number of its cards in the low 16, sorted from the
+	 * largest key to the smallest.
+	 */
+	private static int[] sortedSides(long hand) {
+		int[] keys = new int[3];
+		for (int i = 0; i < 3; i++) {
+			int cards = suit(hand, SIDE_SUITS[i]);
+			keys[i] = Integer.bitCount(cards) << 16 | (int) colex(cards);
+		}
+		if (keys[0] < keys[1])
+			swap(keys, 0, 1);
+		if (keys[1] < keys[2])
+			swap(keys, 1, 2);
+		if (keys[0] < keys[1])
+			swap(keys, 0, 1);
+		return keys;
+	}
+
+	/**
+	 * Swaps two keys.
+	 */
+	private static void swap(int[] keys, int i, int j) {
+		int swap = keys[i];
+		keys[i] = keys[j];
+		keys[j] = swap;
+	}
+
+	/**
+	 * Returns the colex number of a set of cards of one suit among the sets
+	 * of the same size.
+	 */
+	private static long colex(int cards) {
+		long index = 0;
+		int k = 1;
+		for (int m = cards; m != 0; m &= m - 1)
+			index += BINOMIAL[Integer.numberOfTrailingZeros(m)][k++];
+		return index;
+	}
+
+	/**
+	 * Returns the set of k cards of one suit with a colex number.
+	 */
+	private static int subset(long index, int k) {
+		int cards = 0;
+		for (int i = k; i > 0; i--) {
+			int c = i - 1;
+			while (c + 1 < HAND_SIZE && BINOMIAL[c + 1][i] <= index)
+				c++;
+			index -= BINOMIAL[c][i];
+			cards |= 1 << c;
+		}
+		return cards;
+	}
+
+	/**
+	 * Returns the largest x with x * (x + 1) / 2 (for 2) or x * (x + 1) *
+	 * (x + 2) / 6 (for 3) at most r, the first of a multiset numbered r.
+	 */
+	private static long largest(long r, int size) {
+		long x = 0;
+		while (size == 2 ? (x + 1) * (x + 2) / 2 <= r : (x + 1) * (x + 2) * (x + 3) / 6 <= r)
+			x++;
+		return x;
+	}
+}
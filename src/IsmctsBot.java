@@ -0,0 +1,373 @@
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * IsmctsBot chooses a card with Information Set Monte Carlo Tree Search. It
+ * grows a tree of the cards that can be played from the current round on,
+ * and every pass through the tree starts from a new guess of the hidden hands
+ * (see DealSampler), so the tree only holds what the bot can know and the
+ * same line of play is judged over many possible deals. Each pass picks cards
+ * down the tree that have done well or been tried little, adds one new card,
+ * plays the rest of the hand out with random legal cards and counts the
+ * tricks each team took. Cards that play the same as a lower card of the same
+ * hand are left out of the tree (see MoveGenerator), so the tree branches
+ * less.
+ *
+ * The search can be stopped at any moment and the card tried most so far is
+ * played, so the bot keeps to a time limit per card however fast the machine
+ * is. Several threads each grow their own tree from the same position, and
+ * the tries of every tree are added up to choose the card. If the time runs
+ * out before a single pass the bot plays like Bot.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class IsmctsBot extends Bot {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * How much a card tried little is favoured over a card that has done
+	 * well. The results are shares of the tricks left, 0 to 1.
+	 */
+	private static final double EXPLORATION = 0.7;
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	private final int seat; // the seat of the bot, 0 South, 1 West, 2 North, 3 East.
+	private final long budgetNanos; // time allowed to choose a card.
+	private final int threads; // threads growing a tree at the same time.
+	private long iterations; // passes through the trees for the last card played.
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Creates a bot that searches on every core for a time per card.
+	 *
+	 * @param context
+	 *            The game the bot is playing in.
+	 * @param seat
+	 *            The seat of the bot, 0 South, 1 West, 2 North, 3 East
+	 * @param budgetMillis
+	 *            The milliseconds the bot may take to choose a card.
+	 */
+	public IsmctsBot(GameContext context, int seat, long budgetMillis) {
+		this(context, seat, budgetMillis, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a bot that searches on a number of threads for a time per card.
+	 *
+	 * @param context
+	 *            The game the bot is playing in.
+	 * @param seat
+	 *            The seat of the bot, 0 South, 1 West, 2 North, 3 East
+	 * @param budgetMillis
+	 *            The milliseconds the bot may take to choose a card.
+	 * @param threads
+	 *            The number of threads searching, at least 1
+	 */
+	public IsmctsBot(GameContext context, int seat, long budgetMillis, int threads) {
+		super(context);
+		if (threads < 1)
+			throw new IllegalArgumentException("A bot needs at least one thread");
+		this.seat = seat;
+		this.budgetNanos = budgetMillis * 1_000_000L;
+		this.threads = threads;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the number of passes through the trees made to choose the last
+	 * card played.
+	 *
+	 * @return the number of passes, 0 if the bot only had one distinct card
+	 *         to play or played like Bot
+	 */
+	public long getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Chooses a card by searching until the time for the move runs out, and
+	 * takes it out of the hand.
+	 *
+	 * @param list
+	 *            the middle pile (cards already played)
+	 * @return The played bot card
+	 */
+	@Override
+	Card playCard(ArrayList<Card> list) {
+		long deadline = System.nanoTime() + budgetNanos;
+		Memory memory = getContext().getMemory();
+		long hand = getHand().getBits();
+		int[] pile = new int[list.size()];
+		long trick = 0;
+		boolean spadesBroken = memory.count(Suit.SPADE) > 0;
+		for (int i = 0; i < pile.length; i++) {
+			pile[i] = list.get(i).getOrdinal();
+			trick |= CardSet.bit(pile[i]);
+			spadesBroken |= list.get(i).getSuit() == Suit.SPADE;
+		}
+		iterations = 0;
+		long legal = Rules.legalMoves(hand, list, spadesBroken);
+		// cards that play the same leave nothing to choose between
+		long moves = MoveGenerator.distinct(legal, memory, trick);
+		if (Long.bitCount(moves) == 1)
+			return play(Card.of(Long.numberOfTrailingZeros(moves)));
+
+		int leader = (seat - pile.length) & 3;
+		DealSampler sampler = DealSampler.of(memory, seat, hand, pile);
+		if (sampler.count() == 0)
+			return super.playCard(list);
+
+		ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[threads - 1];
+		Search[] searches = new Search[threads];
+		for (int t = 0; t < threads; t++)
+			searches[t] = new Search(sampler, pile, leader, spadesBroken, deadline,
+					getContext().getRandom().split());
+		for (int t = 1; t < threads; t++)
+			helpers[t - 1] = ForkJoinPool.commonPool().submit(searches[t]);
+		searches[0].run();
+		long[] visits = new long[52];
+		for (int t = 0; t < threads; t++) {
+			if (t > 0)
+				helpers[t - 1].join();
+			iterations += searches[t].iterations;
+			for (Node child : searches[t].root.children)
+				visits[child.card] += child.visits;
+		}
+		if (iterations == 0)
+			return super.playCard(list);
+
+		// the most tried card, or the lowest if there is a tie
+		int best = -1;
+		for (long m = legal; m != 0; m &= m - 1) {
+			int card = Long.numberOfTrailingZeros(m);
+			if (best < 0 || visits[card] > visits[best]
+					|| (visits[card] == visits[best] && card % CardSet.SUIT_SIZE < best % CardSet.SUIT_SIZE))
+				best = card;
+		}
+		return play(Card.of(best));
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Takes a card out of the hand.
+	 *
+	 * @param card
+	 *            The card to play.
+	 * @return the card
+	 */
+	private Card play(Card card) {
+		getHand().remove(card);
+		return card;
+	}
+
+	/*
+	 * INNER CLASSES
+	 */
+
+	/**
+	 * A card in the tree, played after the cards of the nodes above it.
+	 */
+	private static class Node {
+
+		private final int card; // ordinal of the card, -1 for the root.
+		private final int mover; // seat that played the card.
+		private final ArrayList<Node> children = new ArrayList<>(); // cards tried after this one.
+		private long tried; // mask of the cards of the children.
+		private int visits; // passes through this node.
+		private int available; // passes where this card could be played.
+		private double reward; // total share of the tricks taken by the mover's team.
+
+		Node(int card, int mover) {
+			this.card = card;
+			this.mover = mover;
+		}
+
+		/**
+		 * Adds a card tried after this one.
+		 */
+		Node add(int card, int mover) {
+			Node child = new Node(card, mover);
+			children.add(child);
+			tried |= CardSet.bit(card);
+			return child;
+		}
+	}
+
+	/**
+	 * Grows one tree from the bot's position on one thread until the
+	 * deadline.
+	 */
+	private static class Search implements Runnable {
+
+		private final Node root = new Node(-1, -1); // the bot's position.
+		private final DealSampler sampler; // the guesses of the hidden hands.
+		private final int[] pile; // ordinals of the cards in the middle pile.
+		private final int rootLeader; // seat that led this round.
+		private final boolean rootBroken; // true once a spade has been played.
+		private final long deadline; // System.nanoTime to stop at.
+		private final SplittableRandom random; // the random numbers of the search.
+		private long iterations; // passes through the tree.
+		private final int[] buffer = new int[CardSet.SUIT_SIZE]; // the cards of a suit being dealt.
+
+		/**
+		 * The position of the pass in progress.
+		 */
+		private final long[] hands = new long[4];
+		private final int[] trick = new int[4];
+		private int trickSize, leader, turn;
+		private boolean spadesBroken;
+		private final int[] won = new int[2]; // tricks taken by each team in this pass.
+		private final Node[] path = new Node[52]; // nodes passed through.
+
+		Search(DealSampler sampler, int[] pile, int leader, boolean spadesBroken, long deadline,
+				SplittableRandom random) {
+			this.sampler = sampler;
+			this.pile = pile;
+			this.rootLeader = leader;
+			this.rootBroken = spadesBroken;
+			this.deadline = deadline;
+			this.random = random;
+		}
+
+		@Override
+		public void run() {
+			while (System.nanoTime() - deadline < 0) {
+				sampler.deal(hands, buffer, random);
+				iterate((Long.bitCount(hands[0] | hands[1] | hands[2] | hands[3]) + pile.length) / 4);
+			}
+		}
+
+		/**
+		 * Makes one pass through the tree with the deal in hands, adding a
+		 * node and playing the hand out.
+		 *
+		 * @param total
+		 *            The number of tricks left at the root.
+		 */
+		private void iterate(int total) {
+			System.arraycopy(pile, 0, trick, 0, pile.length);
+			trickSize = pile.length;
+			leader = rootLeader;
+			turn = (leader + trickSize) & 3;
+			spadesBroken = rootBroken;
+			won[0] = won[1] = 0;
+			iterations++;
+
+			// select cards down the tree until one has not been tried
+			Node node = root;
+			int depth = 0;
+			while (!finished()) {
+				long legal = MoveGenerator.distinct(legalMoves(), gone());
+				Node next = null;
+				double bestValue = -1;
+				for (Node child : node.children) {
+					if ((legal & CardSet.bit(child.card)) == 0)
+						continue;
+					child.available++;
+					double value = child.reward / child.visits
+							+ EXPLORATION * Math.sqrt(Math.log(child.available) / child.visits);
+					if (value > bestValue) {
+						bestValue = value;
+						next = child;
+					}
+				}
+				long untried = legal & ~node.tried;
+				if (untried != 0) {
+					int card = nth(untried, random.nextInt(Long.bitCount(untried)));
+					next = node.add(card, turn);
+					next.available++;
+					play(card);
+					path[depth++] = next;
+					break;
+				}
+				play(next.card);
+				path[depth++] = next;
+				node = next;
+			}
+
+			// play the rest of the hand out at random
+			while (!finished()) {
+				long legal = legalMoves();
+				play(nth(legal, random.nextInt(Long.bitCount(legal))));
+			}
+
+			for (int i = 0; i < depth; i++) {
+				Node n = path[i];
+				n.visits++;
+				n.reward += won[n.mover & 1] / (double) total;
+			}
+		}
+
+		/**
+		 * Returns true when every card of the hand has been played.
+		 */
+		private boolean finished() {
+			return (hands[0] | hands[1] | hands[2] | hands[3]) == 0;
+		}
+
+		/**
+		 * Returns the cards the seat to play is allowed to play.
+		 */
+		private long legalMoves() {
+			int led = trickSize == 0 ? Rules.NO_LEAD : trick[0] / CardSet.SUIT_SIZE;
+			return Rules.legalMoves(hands[turn], led, spadesBroken);
+		}
+
+		/**
+		 * Returns the cards played in earlier rounds of this pass.
+		 */
+		private long gone() {
+			long live = hands[0] | hands[1] | hands[2] | hands[3];
+			for (int i = 0; i < trickSize; i++)
+				live |= CardSet.bit(trick[i]);
+			return CardSet.ALL & ~live;
+		}
+
+		/**
+		 * Plays a card for the seat whose turn it is, finishing the round if
+		 * it is the fourth card.
+		 */
+		private void play(int card) {
+			hands[turn] &= ~CardSet.bit(card);
+			trick[trickSize++] = card;
+			if (card / CardSet.SUIT_SIZE == Card.suitIndex(Suit.SPADE))
+				spadesBroken = true;
+			if (trickSize < 4) {
+				turn = (turn + 1) & 3;
+				return;
+			}
+			int winner = TrickResolver.winner(trick[0], trick[1], trick[2], trick[3], leader);
+			won[winner & 1]++;
+			trickSize = 0;
+			leader = turn = winner;
+		}
+
+		/**
+		 * Returns the ordinal of the nth lowest card of a mask.
+		 */
+		private static int nth(long mask, int n) {
+			for (int i = 0; i < n; i++)
+				mask &= mask - 1;
+			return Long.numberOfTrailingZeros(mask);
+		}
+	}
+}
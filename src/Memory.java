@@ -1,32 +1,65 @@
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Memory is used by the Bot. every time a card is player, it is sent to memory.
  * The bot then uses what is in memory in certain situations to figure out which
  * card should be played next.
  * 
+ * The played cards are kept as one bit per card, along with the number of
+ * cards played in each suit, so every question the bot asks takes the same
+ * time no matter how many cards have been played. Memory also keeps the
+ * suits each seat has shown it does not have, by playing another suit when
+ * the suit was led.
+ * 
+ * It also keeps the seat that played each card, and for each seat a mask
+ * of the cards it can not hold (cards played and the suits it is void in)
+ * and a mask of the cards it must hold: once every other seat is void in a
+ * suit, the cards of the suit still out are all in the last seat's hand.
+ * These are updated as each card is added, so asking costs nothing.
+ * 
  * @author Bob Laskowski
  * @author Peter Klein
  * @version 1.3
  */
 public class Memory {
 
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The seat of a card that has not been played, or was added without one.
+	 */
+	public static final int NO_SEAT = -1;
+
 	/*
 	 * INSTANCE VARIABLES
 	 */
 
-	private final ArrayList<Card> memory; // array list of cards already played
-											// this round
+	private final CardSet memory; // set of cards already played this hand
+	private final int[] suitCounts; // cards played in each suit, by suit index
+	private final int[] voids; // suits each seat has shown out of, one bit per suit index
+	private final int[] playedBy; // seat that played each card, by ordinal, or NO_SEAT
+	private final long[] played; // cards each seat has played
+	private final long[] voidCards; // cards of the suits each seat has shown out of
+	private final long[] known; // cards still out that each seat must hold
 
 	/*
 	 * CONSTRUCTORS
 	 */
 
 	/**
-	 * Memory constructor creates an array list that can store cards.
+	 * Memory constructor creates an empty card set that can store cards.
 	 */
 	public Memory() {
-		memory = new ArrayList<>();
+		memory = new CardSet();
+		suitCounts = new int[4];
+		voids = new int[4];
+		playedBy = new int[52];
+		Arrays.fill(playedBy, NO_SEAT);
+		played = new long[4];
+		voidCards = new long[4];
+		known = new long[4];
 	}
 
 	/*
@@ -34,13 +67,46 @@ public class Memory {
 	 */
 
 	/**
-	 * Adds a card to the memory using arrayList's add method
+	 * Adds a card to the memory
 	 * 
 	 * @param card
 	 *            The card to be added to memory.
 	 */
 	public void add(Card card) {
-		memory.add(card);
+		add(card, NO_SEAT);
+	}
+
+	/**
+	 * Adds a card to the memory along with the seat that played it.
+	 * 
+	 * @param card
+	 *            The card to be added to memory.
+	 * @param seat
+	 *            The seat that played it, 0 South, 1 West, 2 North, 3 East,
+	 *            or NO_SEAT if it is not known
+	 */
+	public void add(Card card, int seat) {
+		if (!memory.add(card))
+			return;
+		suitCounts[Card.suitIndex(card.getSuit())]++;
+		int ordinal = card.getOrdinal();
+		playedBy[ordinal] = seat;
+		if (seat != NO_SEAT)
+			played[seat] |= CardSet.bit(ordinal);
+		for (int s = 0; s < 4; s++)
+			known[s] &= ~CardSet.bit(ordinal);
+	}
+
+	/**
+	 * Returns the seat that played a card.
+	 * 
+	 * @param card
+	 *            The card to check.
+	 * @return the seat, 0 South, 1 West, 2 North, 3 East, or NO_SEAT if the
+	 *         card has not been played or was added without a seat
+	 */
+	public int playedBy(Card card) {
+		return playedBy[card.getOrdinal()];
 	}
 
 	/**
@@ -51,12 +117,157 @@ public class Memory {
 	 * @return True if it is in the memory, else false.
 	 */
 	public boolean contains(Card c) {
-		for (Card aMemory : memory) {
-			if (aMemory.getNumber() == c.getNumber() && aMemory.getSuit() == c.getSuit()) {
-				return true;
+		return memory.contains(c);
+	}
+
+	/**
+	 * Returns the number of cards played so far this round.
+	 * 
+	 * @return the number of cards in the memory, 0-52
+	 */
+	public int size() {
+		return memory.size();
+	}
+
+	/**
+	 * Returns the number of cards of a suit played so far this round.
+	 * 
+	 * @param suit
+	 *            The suit to count.
+	 * @return the number of cards of that suit in the memory, 0-13
+	 */
+	public int count(Suit suit) {
+		return suitCounts[Card.suitIndex(suit)];
+	}
+
+	/**
+	 * Returns the highest card of a suit that has not been played yet. Between
+	 * rounds it is the card that would win a round of that suit if no one
+	 * trumps it; during a round the cards on the table are already played, so
+	 * it only wins if it beats them too.
+	 * 
+	 * @param suit
+	 *            The suit to check.
+	 * @return the highest card of that suit not in the memory, or null if
+	 *         every card of the suit has been played
+	 */
+	public Card highestOutstanding(Suit suit) {
+		long outstanding = CardSet.suitMask(suit) & ~memory.getBits();
+		if (outstanding == 0)
+			return null;
+		return Card.of(63 - Long.numberOfLeadingZeros(outstanding));
+	}
+
+	/**
+	 * Records that a seat has no cards left of a suit, because it did not
+	 * follow when the suit was led.
+	 * 
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @param suit
+	 *            The suit the seat did not follow.
+	 */
+	public void markVoid(int seat, Suit suit) {
+		int bit = 1 << Card.suitIndex(suit);
+		if ((voids[seat] & bit) != 0)
+			return;
+		voids[seat] |= bit;
+		voidCards[seat] |= CardSet.suitMask(suit);
+		// the last seat not void in the suit holds every card of it still out
+		int holder = NO_SEAT;
+		for (int s = 0; s < 4; s++) {
+			if ((voids[s] & bit) == 0) {
+				if (holder != NO_SEAT)
+					return;
+				holder = s;
 			}
 		}
-		return false;
+		if (holder != NO_SEAT)
+			known[holder] |= CardSet.suitMask(suit) & ~memory.getBits();
+	}
+
+	/**
+	 * Checks if a seat has shown it has no cards left of a suit.
+	 * 
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @param suit
+	 *            The suit to check.
+	 * @return true if the seat did not follow the suit earlier this hand
+	 */
+	public boolean isVoid(int seat, Suit suit) {
+		return (voids[seat] & (1 << Card.suitIndex(suit))) != 0;
+	}
+
+	/**
+	 * Checks if a seat can still hold a card, that is the card has not been
+	 * played and the seat has not shown out of its suit.
+	 * 
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @param card
+	 *            The card to check.
+	 * @return false if the seat can not have the card
+	 */
+	public boolean canHold(int seat, Card card) {
+		return (getExcluded(seat) & CardSet.bit(card.getOrdinal())) == 0;
+	}
+
+	/**
+	 * Checks if a seat must hold a card, because every other seat has shown
+	 * out of its suit and the card has not been played.
+	 * 
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @param card
+	 *            The card to check.
+	 * @return true if the card is known to be in the seat's hand
+	 */
+	public boolean mustHold(int seat, Card card) {
+		return (known[seat] & CardSet.bit(card.getOrdinal())) != 0;
+	}
+
+	/**
+	 * Returns the mask of the cards a seat has played, see CardSet.
+	 * 
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @return the bits of the cards added with that seat
+	 */
+	long getPlayed(int seat) {
+		return played[seat];
+	}
+
+	/**
+	 * Returns the mask of the cards a seat can not hold: the cards played
+	 * and the cards of the suits it has shown out of.
+	 * 
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @return the bits of the cards, see CardSet
+	 */
+	long getExcluded(int seat) {
+		return memory.getBits() | voidCards[seat];
+	}
+
+	/**
+	 * Returns the mask of the cards still out that a seat must hold.
+	 * 
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @return the bits of the cards, see CardSet
+	 */
+	long getKnown(int seat) {
+		return known[seat];
+	}
+
+	/**
+	 * Returns the raw mask of the cards played, see CardSet.
+	 * 
+	 * @return the bits of the cards in the memory
+	 */
+	long getBits() {
+		return memory.getBits();
 	}
 
 }
@@ -0,0 +1,248 @@
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * MonteCarloBot plays by guessing the hidden hands many times over instead of
+ * following fixed rules. For each guess it deals the cards it has not seen to
+ * the other three seats, keeping to what it knows: the cards already played
+ * (see Memory), the number of cards each seat has left and the suits a seat
+ * has shown it does not have, with every such deal equally likely (see
+ * DealSampler). Each guessed deal is solved with every hand known (see
+ * DoubleDummy), and the bot plays the card that took the most tricks for its
+ * team over all the guesses.
+ *
+ * The guesses are solved on several threads at once until a time limit for
+ * the move runs out, so the bot plays within the same time on any machine and
+ * plays better the more cores it has. The threads share one table of solved
+ * positions, and look the last rounds up in an EndgameTablebase when the
+ * game has one. If not one guess is solved in time the bot plays like Bot.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class MonteCarloBot extends Bot {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The megabytes of the table of positions shared by every solver.
+	 */
+	private static final int TABLE_MEGABYTES = 64;
+
+	/**
+	 * The table of positions shared by the solvers of every thread. Positions
+	 * are keyed by the cards left, so solvers of different guesses and
+	 * different bots can all use it.
+	 */
+	private static final TranspositionTable TABLE = new TranspositionTable(TABLE_MEGABYTES);
+
+	/**
+	 * The last rounds solved ahead of time, or null if the game has no
+	 * EndgameTablebase file.
+	 */
+	private static final EndgameTablebase ENDGAMES = EndgameTablebase.loadDefault();
+
+	/**
+	 * The solver of each thread, a solver can only be used by one thread.
+	 */
+	private static final ThreadLocal<DoubleDummy> SOLVER = ThreadLocal.withInitial(() -> {
+		DoubleDummy solver = new DoubleDummy(TABLE);
+		solver.setTablebase(ENDGAMES);
+		return solver;
+	});
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	private final int seat; // the seat of the bot, 0 South, 1 West, 2 North, 3 East.
+	private final long budgetNanos; // time allowed to choose a card.
+	private final int threads; // threads solving guesses at the same time.
+	private int samples; // guesses solved for the last card played.
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Creates a bot that solves guesses on every core for a time per card.
+	 *
+	 * @param context
+	 *            The game the bot is playing in.
+	 * @param seat
+	 *            The seat of the bot, 0 South, 1 West, 2 North, 3 East
+	 * @param budgetMillis
+	 *            The milliseconds the bot may take to choose a card.
+	 */
+	public MonteCarloBot(GameContext context, int seat, long budgetMillis) {
+		this(context, seat, budgetMillis, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a bot that solves guesses on a number of threads for a time per
+	 * card.
+	 *
+	 * @param context
+	 *            The game the bot is playing in.
+	 * @param seat
+	 *            The seat of the bot, 0 South, 1 West, 2 North, 3 East
+	 * @param budgetMillis
+	 *            The milliseconds the bot may take to choose a card.
+	 * @param threads
+	 *            The number of threads solving guesses, at least 1
+	 */
+	public MonteCarloBot(GameContext context, int seat, long budgetMillis, int threads) {
+		super(context);
+		if (threads < 1)
+			throw new IllegalArgumentException("A bot needs at least one thread");
+		this.seat = seat;
+		this.budgetNanos = budgetMillis * 1_000_000L;
+		this.threads = threads;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the number of guesses solved to choose the last card played.
+	 *
+	 * @return the number of guesses, 0 if the bot played like Bot
+	 */
+	public int getSamples() {
+		return samples;
+	}
+
+	/**
+	 * Chooses a card by solving guessed deals until the time for the move
+	 * runs out, and takes it out of the hand.
+	 *
+	 * @param list
+	 *            the middle pile (cards already played)
+	 * @return The played bot card
+	 */
+	@Override
+	Card playCard(ArrayList<Card> list) {
+		long deadline = System.nanoTime() + budgetNanos;
+		Memory memory = getContext().getMemory();
+		long hand = getHand().getBits();
+		int[] pile = new int[list.size()];
+		long trick = 0;
+		boolean spadesBroken = memory.count(Suit.SPADE) > 0;
+		for (int i = 0; i < pile.length; i++) {
+			pile[i] = list.get(i).getOrdinal();
+			trick |= CardSet.bit(pile[i]);
+			spadesBroken |= list.get(i).getSuit() == Suit.SPADE;
+		}
+		samples = 0;
+		long legal = Rules.legalMoves(hand, list, spadesBroken);
+		// cards that play the same leave nothing to choose between
+		long moves = MoveGenerator.distinct(legal, memory, trick);
+		if (Long.bitCount(moves) == 1)
+			return play(Card.of(Long.numberOfTrailingZeros(moves)));
+
+		int leader = (seat - pile.length) & 3;
+		DealSampler sampler = DealSampler.of(memory, seat, hand, pile);
+		if (sampler.count() == 0)
+			return super.playCard(list);
+
+		TABLE.newSearch();
+		ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[threads - 1];
+		Sampler[] samplers = new Sampler[threads];
+		for (int t = 0; t < threads; t++)
+			samplers[t] = new Sampler(sampler, pile, leader, spadesBroken, deadline,
+					getContext().getRandom().split());
+		for (int t = 1; t < threads; t++)
+			helpers[t - 1] = ForkJoinPool.commonPool().submit(samplers[t]);
+		samplers[0].run();
+		long[] totals = new long[52];
+		for (int t = 0; t < threads; t++) {
+			if (t > 0)
+				helpers[t - 1].join();
+			samples += samplers[t].samples;
+			for (int o = 0; o < 52; o++)
+				totals[o] += samplers[t].totals[o];
+		}
+		if (samples == 0)
+			return super.playCard(list);
+
+		// the lowest of the cards that did best, keeping high cards for later
+		int best = -1;
+		for (long m = legal; m != 0; m &= m - 1) {
+			int card = Long.numberOfTrailingZeros(m);
+			if (best < 0 || totals[card] > totals[best]
+					|| (totals[card] == totals[best] && card % CardSet.SUIT_SIZE < best % CardSet.SUIT_SIZE))
+				best = card;
+		}
+		return play(Card.of(best));
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Takes a card out of the hand.
+	 *
+	 * @param card
+	 *            The card to play.
+	 * @return the card
+	 */
+	private Card play(Card card) {
+		getHand().remove(card);
+		return card;
+	}
+
+	/*
+	 * INNER CLASSES
+	 */
+
+	/**
+	 * Guesses deals and solves them on one thread until the deadline, adding
+	 * up the tricks each card took.
+	 */
+	private static class Sampler implements Runnable {
+
+		private final DealSampler sampler; // the guesses of the hidden hands.
+		private final int[] pile; // ordinals of the cards in the middle pile.
+		private final int leader; // seat that led this round.
+		private final boolean spadesBroken; // true once a spade has been played.
+		private final long deadline; // System.nanoTime to stop at.
+		private final SplittableRandom random; // the random numbers of the guesses.
+		private final long[] totals = new long[52]; // tricks taken after each card.
+		private int samples; // guesses solved.
+
+		Sampler(DealSampler sampler, int[] pile, int leader, boolean spadesBroken, long deadline,
+				SplittableRandom random) {
+			this.sampler = sampler;
+			this.pile = pile;
+			this.leader = leader;
+			this.spadesBroken = spadesBroken;
+			this.deadline = deadline;
+			this.random = random;
+		}
+
+		@Override
+		public void run() {
+			DoubleDummy solver = SOLVER.get();
+			long[] hands = new long[4];
+			int[] buffer = new int[CardSet.SUIT_SIZE];
+			while (System.nanoTime() - deadline < 0) {
+				sampler.deal(hands, buffer, random);
+				int[] scores = solver.scoreMoves(hands, pile, leader, spadesBroken, deadline);
+				if (scores == null)
+					return;
+				for (int o = 0; o < 52; o++) {
+					if (scores[o] > 0)
+						totals[o] += scores[o];
+				}
+				samples++;
+			}
+		}
+	}
+}
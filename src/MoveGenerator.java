@@ -0,0 +1,190 @@
+/**
+ * MoveGenerator gives the cards a search needs to try, best first, so every
+ * search (DoubleDummy, MonteCarloBot, IsmctsBot) looks at as few cards as it
+ * can and finds the good ones early.
+ *
+ * Cards of a suit in the same hand play the same when every card between
+ * them has already been played (see Memory), such as the queen and jack when
+ * the king is still out but nothing between them is: whichever is played,
+ * the same cards beat it and are beaten by it. Only the lowest card of each
+ * such run is tried, which cuts the cards of a long suit to a few.
+ *
+ * The cards left are ordered by simple card play rules: lead the highest
+ * card of a suit the opponents can not trump, or a low card to the partner's
+ * highest card, win a round with the cheapest card that wins it, and play low
+ * when the partner is already winning.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class MoveGenerator {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * Mask of the 13 spades.
+	 */
+	private static final long SPADES = CardSet.suitMask(Suit.SPADE);
+
+	/**
+	 * The weight of a card the caller asks to try first, above every other.
+	 */
+	private static final int HINT = 1000;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Only static methods, no MoveGenerator objects are made.
+	 */
+	private MoveGenerator() {
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Drops the cards that play the same as a lower card of the same hand,
+	 * counting the cards of the memory as played except the ones on the
+	 * table, which the memory holds as soon as they are played.
+	 *
+	 * @param legal
+	 *            The cards the seat to play can play.
+	 * @param memory
+	 *            The cards played so far this hand.
+	 * @param trick
+	 *            The mask of the cards played this round.
+	 * @return the cards to try
+	 */
+	public static long distinct(long legal, Memory memory, long trick) {
+		return distinct(legal, memory.getBits() & ~trick);
+	}
+
+	/**
+	 * Drops the cards that play the same as a lower card of the same hand.
+	 * Two cards of a suit are the same when every card of the suit between
+	 * them is gone, so only the lowest card of each such run is kept. Cards
+	 * in the round being played are not gone, they can still win it.
+	 *
+	 * @param legal
+	 *            The cards the seat to play can play.
+	 * @param gone
+	 *            The cards played in earlier rounds.
+	 * @return the cards to try
+	 */
+	public static long distinct(long legal, long gone) {
+		long keep = legal;
+		for (long m = legal; m != 0; m &= m - 1) {
+			int card = Long.numberOfTrailingZeros(m);
+			long below = ~gone & (CardSet.bit(card) - 1) & CardSet.suitMask(Card.suitOf(card));
+			if (below != 0 && (Long.highestOneBit(below) & legal) != 0)
+				keep &= ~CardSet.bit(card);
+		}
+		return keep;
+	}
+
+	/**
+	 * Orders cards from the most to the least promising for the seat to
+	 * play, see weight.
+	 *
+	 * @param moves
+	 *            The cards to order, such as the distinct legal cards.
+	 * @param hands
+	 *            The masks of the cards left in each seat's hand, by seat.
+	 * @param trick
+	 *            The ordinals of the cards played this round.
+	 * @param trickSize
+	 *            The number of cards played this round.
+	 * @param leader
+	 *            The seat that led this round.
+	 * @param hint
+	 *            A card to put first if it is one of the moves, or -1
+	 * @param out
+	 *            The array the ordered cards are written to.
+	 * @param weights
+	 *            An array for the weights of the cards.
+	 * @return the number of cards
+	 */
+	public static int order(long moves, long[] hands, int[] trick, int trickSize, int leader, int hint, int[] out,
+			int[] weights) {
+		int n = 0;
+		for (long m = moves; m != 0; m &= m - 1) {
+			int card = Long.numberOfTrailingZeros(m);
+			int w = card == hint ? HINT : weight(hands, trick, trickSize, leader, card);
+			int i = n++;
+			while (i > 0 && weights[i - 1] < w) {
+				weights[i] = weights[i - 1];
+				out[i] = out[i - 1];
+				i--;
+			}
+			weights[i] = w;
+			out[i] = card;
+		}
+		return n;
+	}
+
+	/**
+	 * Returns how promising a card is for the seat to play, by the rules of
+	 * play above.
+	 *
+	 * @param hands
+	 *            The masks of the cards left in each seat's hand, by seat.
+	 * @param trick
+	 *            The ordinals of the cards played this round.
+	 * @param trickSize
+	 *            The number of cards played this round.
+	 * @param leader
+	 *            The seat that led this round.
+	 * @param card
+	 *            The ordinal of a card the seat can play.
+	 * @return the weight of the card, higher is more promising
+	 */
+	public static int weight(long[] hands, int[] trick, int trickSize, int leader, int card) {
+		int seat = (leader + trickSize) & 3;
+		int power = card % CardSet.SUIT_SIZE;
+		long mask = CardSet.SUIT_BITS << (card / CardSet.SUIT_SIZE * CardSet.SUIT_SIZE);
+		long live = (hands[0] | hands[1] | hands[2] | hands[3]) & mask;
+		long highest = Long.highestOneBit(live);
+
+		if (trickSize == 0) {
+			long left = hands[(seat + 1) & 3], right = hands[(seat + 3) & 3];
+			boolean trumped = mask != SPADES && (((left & mask) == 0 && (left & SPADES) != 0)
+					|| ((right & mask) == 0 && (right & SPADES) != 0));
+			if (highest == CardSet.bit(card))
+				return trumped ? 20 : 100;
+			if ((highest & hands[seat ^ 2]) != 0)
+				return trumped ? 15 : 80 - power;
+			long partner = hands[seat ^ 2];
+			if (!trumped && mask != SPADES && (partner & mask) == 0 && (partner & SPADES) != 0)
+				return 75 - power;
+			return 50 - power;
+		}
+
+		int led = trick[0] / CardSet.SUIT_SIZE;
+		int bestPos = 0, bestRank = 0;
+		for (int i = 0; i < trickSize; i++) {
+			int r = TrickResolver.rank(led, trick[i]);
+			if (r > bestRank) {
+				bestRank = r;
+				bestPos = i;
+			}
+		}
+		boolean partnerWinning = ((leader + bestPos) & 3) == (seat ^ 2);
+		int rank = TrickResolver.rank(led, card);
+		if (partnerWinning) {
+			// play low, the partner's card is either sure to win or the last
+			// seat would overtake any card that does not win for sure
+			return 60 - rank - power;
+		}
+		if (rank > bestRank) {
+			boolean sure = trickSize == 3 || highest == CardSet.bit(card);
+			return (sure ? 90 : 70) - rank;
+		}
+		return 40 - power;
+	}
+}
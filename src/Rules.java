@@ -0,0 +1,105 @@
+import java.util.List;
+
+/**
+ * Rules decides which cards of a hand can be played, so the GUI, the bots and
+ * any search all follow the same rules. The cards are given as CardSet masks
+ * and the legal cards are found with a few bit operations:
+ *
+ * A player must follow the suit led if they have any card of it, otherwise
+ * they can play any card. Spades can not be led until a spade has been played
+ * in an earlier round, unless the hand has nothing but spades left.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class Rules {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The led suit given when the player is the first to play in a round.
+	 */
+	static final int NO_LEAD = -1;
+
+	/**
+	 * Mask of the 13 spades.
+	 */
+	private static final long SPADES = CardSet.suitMask(Suit.SPADE);
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Only static methods, no Rules objects are made.
+	 */
+	private Rules() {
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the cards of a hand that can be played.
+	 *
+	 * @param hand
+	 *            The mask of the cards in the hand, see CardSet
+	 * @param ledSuit
+	 *            The suit index of the card led this round (see
+	 *            Card.suitIndex), or NO_LEAD if no card has been played yet
+	 * @param spadesBroken
+	 *            true if a spade has been played this hand
+	 * @return the mask of the cards in the hand that can be played
+	 */
+	public static long legalMoves(long hand, int ledSuit, boolean spadesBroken) {
+		if (ledSuit != NO_LEAD) {
+			long follow = hand & (CardSet.SUIT_BITS << (ledSuit * CardSet.SUIT_SIZE));
+			return follow != 0 ? follow : hand;
+		}
+		if (spadesBroken)
+			return hand;
+		long rest = hand & ~SPADES;
+		return rest != 0 ? rest : hand;
+	}
+
+	/**
+	 * Returns the cards of a hand that can be played after the cards already
+	 * in the middle pile.
+	 *
+	 * @param hand
+	 *            The mask of the cards in the hand, see CardSet
+	 * @param pile
+	 *            The cards already played this round, in the order they were
+	 *            played
+	 * @param spadesBroken
+	 *            true if a spade has been played this hand
+	 * @return the mask of the cards in the hand that can be played
+	 */
+	public static long legalMoves(long hand, List<Card> pile, boolean spadesBroken) {
+		int ledSuit = pile == null || pile.isEmpty() ? NO_LEAD : Card.suitIndex(pile.get(0).getSuit());
+		return legalMoves(hand, ledSuit, spadesBroken);
+	}
+
+	/**
+	 * Checks if a card of a hand can be played after the cards already in the
+	 * middle pile.
+	 *
+	 * @param card
+	 *            The card to check.
+	 * @param hand
+	 *            The mask of the cards in the hand, see CardSet
+	 * @param pile
+	 *            The cards already played this round, in the order they were
+	 *            played
+	 * @param spadesBroken
+	 *            true if a spade has been played this hand
+	 * @return true if the card is in the hand and can be played
+	 */
+	public static boolean isLegal(Card card, long hand, List<Card> pile, boolean spadesBroken) {
+		return (legalMoves(hand, pile, spadesBroken) & CardSet.bit(card.getOrdinal())) != 0;
+	}
+}
@@ -0,0 +1,378 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Simulator plays complete games of bots against bots without any window, as
+ * fast as the machine allows. Every game is played to 500 points by the same
+ * SpadesEngine, Bot and scoring rules as the GUI, and the bots bid from the
+ * same bid table as the GUI (see BidTable). Without the table file they bid
+ * with a Bidder, as the GUI does, but with BID_MILLIS a seat instead of the
+ * GUI's longer time so a run does not take hours; those bids depend on the
+ * speed of the machine. The games are spread over all cores by a
+ * ForkJoinPool, each game in its own GameContext, and the totals of all games
+ * are reported at the end:
+ *
+ * java Simulator [games] [seed] [threads] [bot]
+ *
+ * North and South are played by the bot given as a seat, such as
+ * "MonteCarloBot:300:1" or "IsmctsBot:300:1" (see GameContext.searchBot), and
+ * East and West by the plain Bot, so a searching bot can be measured against
+ * it. Searching bots are slow, give them one thread each and play fewer games.
+ *
+ * Game i of a run is seeded from the seed of the run and i, so a run with the
+ * same seed and number of games has the same result on any number of threads.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class Simulator {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The number of games a task plays itself instead of splitting in two.
+	 */
+	private static final int BATCH_SIZE = 32;
+
+	/**
+	 * Hands after which a game is stopped if nobody has won yet, so a game
+	 * that can never end does not stop the run.
+	 */
+	static final int MAX_HANDS = 1000;
+
+	/**
+	 * The seats of every simulated game unless another bot is given.
+	 */
+	private static final String[] BOTS = { GameContext.BOT, GameContext.BOT, GameContext.BOT, GameContext.BOT };
+
+	/**
+	 * The bids of every simulated game, or null to bid with a Bidder taking
+	 * BID_MILLIS for each seat.
+	 */
+	private static final BidTable BID_TABLE = BidTable.loadDefault();
+	private static final long BID_MILLIS = 10;
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	private final long seed; // the seed every game's seed is made from.
+	private final ForkJoinPool pool; // the threads the games are played on.
+	private final String[] seats; // the seats of every game.
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Creates a simulator that uses every core.
+	 *
+	 * @param seed
+	 *            The seed of the run.
+	 */
+	public Simulator(long seed) {
+		this(seed, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a simulator that plays on a number of threads.
+	 *
+	 * @param seed
+	 *            The seed of the run.
+	 * @param threads
+	 *            The number of games played at the same time.
+	 */
+	public Simulator(long seed, int threads) {
+		this(seed, threads, BOTS);
+	}
+
+	/**
+	 * Creates a simulator that plays the given seats on a number of threads.
+	 *
+	 * @param seed
+	 *            The seed of the run.
+	 * @param threads
+	 *            The number of games played at the same time.
+	 * @param seats
+	 *            The seat of each player, see GameContext.
+	 */
+	public Simulator(long seed, int threads, String[] seats) {
+		this.seed = seed;
+		this.seats = seats.clone();
+		pool = new ForkJoinPool(threads);
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Plays a number of games and adds up their results.
+	 *
+	 * @param games
+	 *            The number of games to play.
+	 * @return the totals of every game
+	 */
+	public Result run(int games) {
+		return pool.invoke(new Batch(0, games));
+	}
+
+	/**
+	 * Stops the threads of the simulator once it is no longer needed.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Plays games from the command line and prints the totals and the number
+	 * of games and hands played per second.
+	 *
+	 * @param args
+	 *            The number of games (10000 if none is given), the seed of the
+	 *            run (the current time if none is given), the number of
+	 *            threads (every core if none is given) and the seat of North
+	 *            and South (Bot if none is given).
+	 */
+	public static void main(String[] args) {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+		int threads = args.length > 2 ? Integer.parseInt(args[2])
+				: Runtime.getRuntime().availableProcessors();
+		String bot = args.length > 3 ? args[3] : GameContext.BOT;
+		String[] seats = { bot, GameContext.BOT, bot, GameContext.BOT };
+
+		Simulator simulator = new Simulator(seed, threads, seats);
+		long start = System.nanoTime();
+		Result result = simulator.run(games);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		simulator.shutdown();
+
+		System.out.println("Seed " + seed + ", " + threads + " threads, " + bot + " against " + GameContext.BOT
+				+ (BID_TABLE != null ? ", bids from the bid table" : ", bids by a Bidder at " + BID_MILLIS + " ms"));
+		System.out.println(result);
+		System.out.printf("%.3f s, %.0f games/s, %.0f hands/s%n", seconds, result.getGames() / seconds,
+				result.getHands() / seconds);
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Plays one whole game of bots and adds its result to a total.
+	 *
+	 * @param gameSeed
+	 *            The seed of the game's random numbers.
+	 * @param seats
+	 *            The seat of each player, see GameContext.
+	 * @param total
+	 *            The result the game is added to.
+	 */
+	static void playGame(long gameSeed, String[] seats, Result total) {
+		GameContext context = new GameContext(seats, gameSeed);
+		SpadesEngine engine = new SpadesEngine(new Driver(context));
+		Bidder bidder = BID_TABLE == null ? new Bidder(BID_MILLIS, 1) : null;
+		int hands = 0;
+		while (engine.getPhase() != SpadesEngine.Phase.GAME_OVER && hands < MAX_HANDS) {
+			engine.deal();
+			for (int i = 0; i < 4; i++)
+				engine.bid(i, bid(engine.getPlayer(i).getHand(), bidder, context));
+			while (engine.getPhase() == SpadesEngine.Phase.PLAY) {
+				while (!engine.isTrickComplete())
+					engine.playBot();
+				engine.nextTrick();
+			}
+			hands++;
+			for (int team = 0; team < 2; team++) {
+				total.points[team] += engine.getHandPoints(team);
+				total.bags[team] += engine.getHandBags(team);
+			}
+		}
+		total.games++;
+		total.hands += hands;
+		int winner = engine.getWinningTeam();
+		if (winner >= 0)
+			total.wins[winner]++;
+		else
+			total.unfinished++;
+	}
+
+	/**
+	 * Returns the bid of a hand, from the bid table if there is one.
+	 *
+	 * @param hand
+	 *            The hand to bid.
+	 * @param bidder
+	 *            The game's bidder, used when there is no bid table.
+	 * @param context
+	 *            The context of the game, whose random numbers the bidder
+	 *            deals with.
+	 * @return the number of tricks to bid
+	 */
+	static int bid(Hand hand, Bidder bidder, GameContext context) {
+		return BID_TABLE != null ? BID_TABLE.bid(hand) : bidder.bid(hand, context.getRandom());
+	}
+
+	/**
+	 * Returns the seed of game i of a run, spreading the seeds of neighbouring
+	 * games apart.
+	 *
+	 * @param runSeed
+	 *            The seed of the run.
+	 * @param game
+	 *            The number of the game in the run.
+	 * @return the seed of that game
+	 */
+	static long gameSeed(long runSeed, long game) {
+		long z = runSeed + (game + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/*
+	 * INNER CLASSES
+	 */
+
+	/**
+	 * A range of games, split in half until each half is small enough to play
+	 * on one thread. Idle threads steal the halves that have not started yet.
+	 */
+	private class Batch extends RecursiveTask<Result> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int first; // number of the first game in the range.
+		private final int count; // number of games in the range.
+
+		Batch(int first, int count) {
+			this.first = first;
+			this.count = count;
+		}
+
+		@Override
+		protected Result compute() {
+			if (count <= BATCH_SIZE) {
+				Result result = new Result();
+				for (int i = first; i < first + count; i++)
+					playGame(gameSeed(seed, i), seats, result);
+				return result;
+			}
+			int half = count / 2;
+			Batch left = new Batch(first, half);
+			left.fork();
+			Result right = new Batch(first + half, count - half).compute();
+			return right.add(left.join());
+		}
+	}
+
+	/**
+	 * The totals of a number of games. Team values are indexed by
+	 * SpadesEngine.NORTH_SOUTH and SpadesEngine.EAST_WEST.
+	 */
+	public static class Result {
+
+		private long games; // games played.
+		private long hands; // hands played in all games.
+		private long unfinished; // games stopped after MAX_HANDS.
+		private final long[] wins = new long[2]; // games won by each team.
+		private final long[] points = new long[2]; // points scored by each team.
+		private final long[] bags = new long[2]; // sand bags taken by each team.
+
+		/**
+		 * Adds the totals of other games to these.
+		 *
+		 * @param other
+		 *            The result to add.
+		 * @return this result
+		 */
+		Result add(Result other) {
+			games += other.games;
+			hands += other.hands;
+			unfinished += other.unfinished;
+			for (int team = 0; team < 2; team++) {
+				wins[team] += other.wins[team];
+				points[team] += other.points[team];
+				bags[team] += other.bags[team];
+			}
+			return this;
+		}
+
+		/**
+		 * Gets the number of games played.
+		 *
+		 * @return the number of games played
+		 */
+		public long getGames() {
+			return games;
+		}
+
+		/**
+		 * Gets the number of hands played in all games.
+		 *
+		 * @return the number of hands played in all games
+		 */
+		public long getHands() {
+			return hands;
+		}
+
+		/**
+		 * Gets the number of games stopped after MAX_HANDS hands.
+		 *
+		 * @return the number of games nobody won within MAX_HANDS hands
+		 */
+		public long getUnfinished() {
+			return unfinished;
+		}
+
+		/**
+		 * Gets the number of games a team won.
+		 *
+		 * @param team
+		 *            SpadesEngine.NORTH_SOUTH or SpadesEngine.EAST_WEST
+		 * @return the number of games that team won
+		 */
+		public long getWins(int team) {
+			return wins[team];
+		}
+
+		/**
+		 * Gets the points a team scored in all hands.
+		 *
+		 * @param team
+		 *            SpadesEngine.NORTH_SOUTH or SpadesEngine.EAST_WEST
+		 * @return the points that team scored in all hands
+		 */
+		public long getPoints(int team) {
+			return points[team];
+		}
+
+		/**
+		 * Gets the sand bags a team took in all hands.
+		 *
+		 * @param team
+		 *            SpadesEngine.NORTH_SOUTH or SpadesEngine.EAST_WEST
+		 * @return the sand bags that team took in all hands
+		 */
+		public long getBags(int team) {
+			return bags[team];
+		}
+
+		/**
+		 * Prints the totals, with the averages per hand.
+		 */
+		public String toString() {
+			double h = Math.max(hands, 1);
+			return String.format(
+					"%d games, %d hands (%.1f per game), %d unfinished%n"
+							+ "N & S: %d wins, %.1f points and %.2f bags per hand%n"
+							+ "E & W: %d wins, %.1f points and %.2f bags per hand",
+					games, hands, hands / (double) Math.max(games, 1), unfinished, wins[0], points[0] / h,
+					bags[0] / h, wins[1], points[1] / h, bags[1] / h);
+		}
+	}
+}
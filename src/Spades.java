@@ -26,6 +26,8 @@ public class Spades {
 	 */
 	public static void main(String[] args)
 	{
+		// Render the card images while the players are choosing their seats
+		CardImages.warm();
 		WelcomeGUI welGUI = new WelcomeGUI();
 		welGUI.display();
 	}
@@ -0,0 +1,583 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SpadesEngine runs the rules of a game of spades without any window. It goes
+ * through the phases of every hand: dealing, bidding, playing the 13 rounds
+ * and scoring, until one team reaches 500 points and the game is over. The GUI
+ * calls it as buttons are clicked, and anything else, such as a simulation,
+ * can call it in a loop to play whole games as fast as the bots can play.
+ *
+ * Seats are numbered the same way as in the GUI: 0 is South, 1 is West, 2 is
+ * North and 3 is East. North and South are one team, East and West the other.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class SpadesEngine {
+
+	/**
+	 * The phases of a game. DEAL is before the cards of a hand are dealt, BID
+	 * is while the players bid, PLAY is while the 13 rounds are played, SCORE
+	 * is after a hand has been scored and GAME_OVER is after a team has won.
+	 */
+	public enum Phase {
+		DEAL, BID, PLAY, SCORE, GAME_OVER
+	}
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The score a team needs to win the game.
+	 */
+	public static final int WINNING_SCORE = 500;
+
+	/**
+	 * Team index of North and South, used by the team getters.
+	 */
+	public static final int NORTH_SOUTH = 0;
+
+	/**
+	 * Team index of East and West, used by the team getters.
+	 */
+	public static final int EAST_WEST = 1;
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	private final Driver driver; // holds the players, deck and memory.
+	private Phase phase; // the phase the game is in.
+
+	private final int[] bids = new int[4]; // tricks bid by each seat.
+	private final int[] tricksTaken = new int[4]; // tricks taken by each seat.
+	private int bidsMade; // number of seats that have bid this hand.
+
+	/**
+	 * The cards of the current round in the order they were played, and the
+	 * same cards by the seat that played them.
+	 */
+	private final ArrayList<Card> trick = new ArrayList<>(4);
+	private final Card[] playedBy = new Card[4];
+	private final List<Card> trickView = Collections.unmodifiableList(trick);
+
+	private int leader; // seat that led the current round.
+	private int turn; // seat whose turn it is to play.
+	private int trickWinner; // seat that won the last complete round.
+	private int tricksPlayed; // number of complete rounds this hand.
+	private boolean spadesPlayed; // true once spades have been broken.
+
+	/**
+	 * Score of each team, indexed by NORTH_SOUTH and EAST_WEST. The hand
+	 * values are the result of the last hand scored, the totals carry over
+	 * from hand to hand.
+	 */
+	private final int[] score = new int[2];
+	private final int[] totalBags = new int[2];
+	private final int[] handPoints = new int[2];
+	private final int[] handBags = new int[2];
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Creates an engine for a new game, both teams start with no points and no
+	 * sand bags.
+	 *
+	 * @param driver
+	 *            The driver holding the players, deck and memory.
+	 */
+	public SpadesEngine(Driver driver) {
+		this(driver, 0, 0, 0, 0);
+	}
+
+	/**
+	 * Creates an engine that carries on a game, starting from the score and
+	 * sand bags of the hands already played.
+	 *
+	 * @param driver
+	 *            The driver holding the players, deck and memory.
+	 * @param scoreNS
+	 *            score of North and South team
+	 * @param scoreEW
+	 *            score of East and West team
+	 * @param bagsNS
+	 *            number of sand bags for North and South team
+	 * @param bagsEW
+	 *            number of sand bags for East and West team
+	 */
+	public SpadesEngine(Driver driver, int scoreNS, int scoreEW, int bagsNS, int bagsEW) {
+		this.driver = driver;
+		score[NORTH_SOUTH] = scoreNS;
+		score[EAST_WEST] = scoreEW;
+		totalBags[NORTH_SOUTH] = bagsNS;
+		totalBags[EAST_WEST] = bagsEW;
+		phase = Phase.DEAL;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Deals 13 cards to every player and starts the bidding. A random seat,
+	 * picked by the random numbers of the game's context, will lead the first
+	 * round.
+	 *
+	 * @throws IllegalStateException
+	 *             if a hand is still being played or the game is over
+	 */
+	public void deal() {
+		if (phase != Phase.DEAL && phase != Phase.SCORE)
+			throw new IllegalStateException("Cannot deal during " + phase);
+		if (phase == Phase.SCORE)
+			driver.newHand();
+		driver.dealHands();
+
+		for (int i = 0; i < 4; i++) {
+			bids[i] = 0;
+			tricksTaken[i] = 0;
+			playedBy[i] = null;
+		}
+		bidsMade = 0;
+		trick.clear();
+		tricksPlayed = 0;
+		spadesPlayed = false;
+		trickWinner = -1;
+		setTurn(driver.getContext().getRandom().nextInt(4));
+		leader = turn;
+		phase = Phase.BID;
+	}
+
+	/**
+	 * Sets the number of tricks a seat bids for this hand. Once all four seats
+	 * have bid, the first round starts.
+	 *
+	 * @param seat
+	 *            The seat bidding, 0-3
+	 * @param tricks
+	 *            The number of tricks bid, 0-13
+	 */
+	public void bid(int seat, int tricks) {
+		if (phase != Phase.BID)
+			throw new IllegalStateException("Cannot bid during " + phase);
+		if (tricks < 0 || tricks > 13)
+			throw new IllegalArgumentException("Bid must be 0-13: " + tricks);
+		bids[seat] = tricks;
+		if (++bidsMade == 4)
+			phase = Phase.PLAY;
+	}
+
+	/**
+	 * Plays a card from the hand of the seat whose turn it is. After the
+	 * fourth card of a round the winner is found, and nextTrick must be called
+	 * before the next round can start.
+	 *
+	 * @param card
+	 *            The card to play.
+	 * @throws IllegalArgumentException
+	 *             if the card is not in the player's hand or the rules do not
+	 *             allow it to be played
+	 */
+	public void play(Card card) {
+		checkCanPlay();
+		if (!Rules.isLegal(card, getPlayer(turn).getHand().getBits(), trick, spadesPlayed))
+			throw new IllegalArgumentException(card + " can not be played by seat " + turn);
+		getPlayer(turn).getHand().remove(card);
+		place(card);
+	}
+
+	/**
+	 * Has the bot whose turn it is choose a card and plays it.
+	 *
+	 * @return The card the bot played
+	 * @throws IllegalStateException
+	 *             if it is not a bot's turn
+	 */
+	public Card playBot() {
+		checkCanPlay();
+		if (!(getPlayer(turn) instanceof Bot))
+			throw new IllegalStateException("Seat " + turn + " is not a bot");
+		long legal = getLegalMoves();
+		Card card = ((Bot) getPlayer(turn)).playCard(trick);
+		if ((legal & CardSet.bit(card.getOrdinal())) == 0)
+			throw new IllegalStateException("Seat " + turn + " played " + card + ", which is not legal");
+		place(card);
+		return card;
+	}
+
+	/**
+	 * Clears the finished round and lets the winner lead the next one. After
+	 * the 13th round the hand is scored, which ends the game if a team has
+	 * reached 500 points.
+	 */
+	public void nextTrick() {
+		if (!isTrickComplete())
+			throw new IllegalStateException("The round is not over");
+		trick.clear();
+		for (int i = 0; i < 4; i++)
+			playedBy[i] = null;
+		if (tricksPlayed == 13)
+			scoreHand();
+	}
+
+	/**
+	 * Calculates the number of points a team scored for a round based on their
+	 * tricks bid and tricks taken.
+	 *
+	 * @param p1TricksBid
+	 *            First player on the team's tricks bid
+	 * @param p2TricksBid
+	 *            Second player on the team's tricks bid
+	 * @param p1TricksTaken
+	 *            First player on the team's tricks taken
+	 * @param p2TricksTaken
+	 *            Second player on the team's tricks taken
+	 * @return The points for that team for the round
+	 */
+	static int pointsScored(int p1TricksBid, int p2TricksBid, int p1TricksTaken, int p2TricksTaken) {
+		int score;
+		if ((p1TricksTaken + p2TricksTaken) < (p1TricksBid + p2TricksBid))
+			score = -(10 * (p1TricksBid + p2TricksBid));
+		else if ((p1TricksTaken + p2TricksTaken) == (p1TricksBid + p2TricksBid))
+			score = 10 * (p1TricksBid + p2TricksBid);
+		else {
+			score = (10 * (p1TricksBid + p2TricksBid))
+					+ ((p1TricksTaken + p2TricksTaken) - (p1TricksBid + p2TricksBid));
+		}
+
+		return score;
+	}
+
+	/**
+	 * Calculated the number of sand bags for a team for a round based on their
+	 * tricks bid and tricks taken.
+	 *
+	 * @param p1TricksBid
+	 *            First player on the team's tricks bid
+	 * @param p2TricksBid
+	 *            Second player on the team's tricks bid
+	 * @param p1TricksTaken
+	 *            First player on the team's tricks taken
+	 * @param p2TricksTaken
+	 *            Second player on the team's tricks taken
+	 * @return The total sand bags for the team for that round, returns 0 if
+	 *         none
+	 */
+	static int sandBags(int p1TricksBid, int p2TricksBid, int p1TricksTaken, int p2TricksTaken) {
+		int bags = 0;
+		// If more tricks are taken than bid, number of over tricks = number of
+		// sand bags
+		if ((p1TricksTaken + p2TricksTaken) > (p1TricksBid + p2TricksBid))
+			bags = (p1TricksTaken + p2TricksTaken) - (p1TricksBid + p2TricksBid);
+		return bags;
+	}
+
+	/*
+	 * GETTERS
+	 */
+
+	/**
+	 * Returns the phase the game is in.
+	 *
+	 * @return the current phase
+	 */
+	public Phase getPhase() {
+		return phase;
+	}
+
+	/**
+	 * Returns the driver of the game.
+	 *
+	 * @return the driver holding the players, deck and memory
+	 */
+	public Driver getDriver() {
+		return driver;
+	}
+
+	/**
+	 * Returns the player in a seat.
+	 *
+	 * @param seat
+	 *            The seat, 0-3
+	 * @return the player in that seat
+	 */
+	public Player getPlayer(int seat) {
+		return driver.players[seat];
+	}
+
+	/**
+	 * Returns the name shown for a seat, the name of the human or the kind of
+	 * bot, such as "Bot" or "MonteCarloBot".
+	 *
+	 * @param seat
+	 *            The seat, 0-3
+	 * @return the name of that seat
+	 */
+	public String getName(int seat) {
+		if (driver.getContext().isBot(seat))
+			return driver.playerAry[seat].split(":")[0];
+		return driver.playerAry[seat];
+	}
+
+	/**
+	 * Returns the seat whose turn it is to play.
+	 *
+	 * @return the seat to play, 0-3
+	 */
+	public int getTurn() {
+		return turn;
+	}
+
+	/**
+	 * Returns the cards the seat whose turn it is can play.
+	 *
+	 * @return the mask of legal cards, see Rules and CardSet
+	 */
+	public long getLegalMoves() {
+		return Rules.legalMoves(getPlayer(turn).getHand().getBits(), trick, spadesPlayed);
+	}
+
+	/**
+	 * Returns the seat that led the current round.
+	 *
+	 * @return the leading seat, 0-3
+	 */
+	public int getLeader() {
+		return leader;
+	}
+
+	/**
+	 * Returns the cards of the current round in the order they were played.
+	 *
+	 * @return a read only list of 0-4 cards
+	 */
+	public List<Card> getTrick() {
+		return trickView;
+	}
+
+	/**
+	 * Returns the card a seat played in the current round.
+	 *
+	 * @param seat
+	 *            The seat, 0-3
+	 * @return the card played by that seat, null if it has not played yet
+	 */
+	public Card getPlayedCard(int seat) {
+		return playedBy[seat];
+	}
+
+	/**
+	 * Returns true once all four cards of the round have been played.
+	 *
+	 * @return true if the round is over and nextTrick can be called
+	 */
+	public boolean isTrickComplete() {
+		return trick.size() == 4;
+	}
+
+	/**
+	 * Returns the seat that won the last complete round.
+	 *
+	 * @return the winning seat, 0-3, or -1 if no round is over yet
+	 */
+	public int getTrickWinner() {
+		return trickWinner;
+	}
+
+	/**
+	 * Returns the number of rounds played so far this hand.
+	 *
+	 * @return the number of complete rounds, 0-13
+	 */
+	public int getTricksPlayed() {
+		return tricksPlayed;
+	}
+
+	/**
+	 * Returns true once a spade has been played this hand, after which spades
+	 * can be led.
+	 *
+	 * @return true if spades have been broken
+	 */
+	public boolean isSpadesPlayed() {
+		return spadesPlayed;
+	}
+
+	/**
+	 * Returns the number of tricks a seat bid this hand.
+	 *
+	 * @param seat
+	 *            The seat, 0-3
+	 * @return the seat's bid
+	 */
+	public int getBid(int seat) {
+		return bids[seat];
+	}
+
+	/**
+	 * Returns the number of tricks a seat has taken this hand.
+	 *
+	 * @param seat
+	 *            The seat, 0-3
+	 * @return the seat's tricks taken
+	 */
+	public int getTricksTaken(int seat) {
+		return tricksTaken[seat];
+	}
+
+	/**
+	 * Returns the total score of a team.
+	 *
+	 * @param team
+	 *            NORTH_SOUTH or EAST_WEST
+	 * @return the team's score
+	 */
+	public int getScore(int team) {
+		return score[team];
+	}
+
+	/**
+	 * Returns the sand bags a team is carrying towards the next penalty.
+	 *
+	 * @param team
+	 *            NORTH_SOUTH or EAST_WEST
+	 * @return the team's total sand bags
+	 */
+	public int getTotalBags(int team) {
+		return totalBags[team];
+	}
+
+	/**
+	 * Returns the points a team scored in the last hand scored.
+	 *
+	 * @param team
+	 *            NORTH_SOUTH or EAST_WEST
+	 * @return the team's points for the hand
+	 */
+	public int getHandPoints(int team) {
+		return handPoints[team];
+	}
+
+	/**
+	 * Returns the sand bags a team took in the last hand scored.
+	 *
+	 * @param team
+	 *            NORTH_SOUTH or EAST_WEST
+	 * @return the team's sand bags for the hand
+	 */
+	public int getHandBags(int team) {
+		return handBags[team];
+	}
+
+	/**
+	 * Returns the team that won the game.
+	 *
+	 * @return NORTH_SOUTH or EAST_WEST, or -1 if the game is not over
+	 */
+	public int getWinningTeam() {
+		if (phase != Phase.GAME_OVER)
+			return -1;
+		return score[NORTH_SOUTH] >= WINNING_SCORE ? NORTH_SOUTH : EAST_WEST;
+	}
+
+	/**
+	 * Returns the team a seat plays for.
+	 *
+	 * @param seat
+	 *            The seat, 0-3
+	 * @return NORTH_SOUTH for seats 0 and 2, EAST_WEST for seats 1 and 3
+	 */
+	public static int teamOf(int seat) {
+		return seat % 2 == 0 ? NORTH_SOUTH : EAST_WEST;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Checks that a card can be played now.
+	 */
+	private void checkCanPlay() {
+		if (phase != Phase.PLAY)
+			throw new IllegalStateException("Cannot play a card during " + phase);
+		if (isTrickComplete())
+			throw new IllegalStateException("The round is over, call nextTrick first");
+	}
+
+	/**
+	 * Puts a card that has left the hand of the seat to play into the round,
+	 * and finds the winner once all four cards are in.
+	 *
+	 * @param card
+	 *            The card played.
+	 */
+	private void place(Card card) {
+		if (card.getSuit() == Suit.SPADE)
+			spadesPlayed = true;
+		// remember who played the card before what not following shows, so
+		// the cards still out never include the cards on the table
+		Memory memory = driver.getContext().getMemory();
+		memory.add(card, turn);
+		if (!trick.isEmpty() && card.getSuit() != trick.get(0).getSuit())
+			memory.markVoid(turn, trick.get(0).getSuit());
+		trick.add(card);
+		playedBy[turn] = card;
+
+		if (trick.size() < 4) {
+			setTurn((turn + 1) % 4);
+			return;
+		}
+
+		// evaluate winner of the round, the winner leads the next one
+		trickWinner = TrickResolver.winner(trick.get(0).getOrdinal(), trick.get(1).getOrdinal(),
+				trick.get(2).getOrdinal(), trick.get(3).getOrdinal(), leader);
+		tricksTaken[trickWinner]++;
+		tricksPlayed++;
+		setTurn(trickWinner);
+		leader = trickWinner;
+	}
+
+	/**
+	 * Scores the hand for both teams, adding the points and sand bags to the
+	 * totals. Every 10 sand bags cost a team 100 points.
+	 */
+	private void scoreHand() {
+		handBags[NORTH_SOUTH] = sandBags(bids[2], bids[0], tricksTaken[2], tricksTaken[0]);
+		handBags[EAST_WEST] = sandBags(bids[3], bids[1], tricksTaken[1], tricksTaken[3]);
+		handPoints[NORTH_SOUTH] = pointsScored(bids[2], bids[0], tricksTaken[2], tricksTaken[0]);
+		handPoints[EAST_WEST] = pointsScored(bids[3], bids[1], tricksTaken[1], tricksTaken[3]);
+
+		for (int team = 0; team < 2; team++) {
+			totalBags[team] += handBags[team];
+			if (totalBags[team] >= 10) {
+				score[team] -= 100;
+				totalBags[team] = 0;
+			}
+			score[team] += handPoints[team];
+		}
+
+		if (score[NORTH_SOUTH] >= WINNING_SCORE || score[EAST_WEST] >= WINNING_SCORE)
+			phase = Phase.GAME_OVER;
+		else
+			phase = Phase.SCORE;
+	}
+
+	/**
+	 * Sets whose turn it is, keeping the players' turnToPlay flags in step.
+	 *
+	 * @param seat
+	 *            The seat to play next, 0-3
+	 */
+	private void setTurn(int seat) {
+		turn = seat;
+		for (int i = 0; i < 4; i++)
+			getPlayer(i).setTurnToPlay(i == seat);
+	}
+}
@@ -0,0 +1,290 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TranspositionTable stores what a search learned about positions it has seen,
+ * keyed by a 64 bit key such as a Zobrist key, so a position reached again
+ * through a different order of the same cards is not searched again. For each
+ * position it keeps the lowest and highest number of tricks the search proved
+ * for it, the best card found and how many tricks were left.
+ *
+ * The table has a fixed size chosen when it is made and lives outside the
+ * Java heap, so a large table does not slow down garbage collection. Entries
+ * are 16 bytes, grouped in buckets of four that fill one 64 byte cache line.
+ * A position can be stored in any entry of the bucket its key points to, and
+ * when the bucket is full the entry replaced is the one left by the oldest
+ * search, or if they are equally old the one with the fewest tricks left,
+ * since it took the least work to find. Calling newSearch starts a new
+ * generation, so entries from earlier searches make room first.
+ *
+ * Many threads can probe and store at the same time without locks. Each
+ * entry is written as its data and its key XORed with its data, and a probe
+ * only accepts an entry if XORing the two gives back its key, so an entry
+ * half written by one thread while another reads it is just a miss.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class TranspositionTable {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The data of a probe that found nothing. Every stored entry has its valid
+	 * bit set, so no stored data is 0.
+	 */
+	public static final long MISS = 0L;
+
+	/**
+	 * The best move of an entry that has none.
+	 */
+	public static final int NO_MOVE = 63;
+
+	/**
+	 * Bytes in one entry and entries in one bucket.
+	 */
+	private static final int ENTRY_BYTES = 16, BUCKET_ENTRIES = 4;
+
+	/**
+	 * Bits of the data: lower bound 0-3, upper bound 4-7, best move 8-13,
+	 * tricks left 14-17, generation 18-25 and the valid bit 26.
+	 */
+	private static final int UPPER_SHIFT = 4, MOVE_SHIFT = 8, DEPTH_SHIFT = 14, GENERATION_SHIFT = 18;
+	private static final long VALID = 1L << 26;
+
+	/**
+	 * Reads and writes the longs of the table.
+	 */
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+			ByteOrder.nativeOrder());
+
+	/*
+	 * INSTANCE VARIABLES
+	 */
+
+	private final ByteBuffer table; // the entries, outside the heap.
+	private final int bucketMask; // buckets - 1, the number of buckets is a power of two.
+	private volatile int generation; // the generation of the current search, 0-255.
+	private final LongAdder probes = new LongAdder(); // probes made.
+	private final LongAdder hits = new LongAdder(); // probes that found their key.
+	private final LongAdder stores = new LongAdder(); // entries written.
+	private final LongAdder replaced = new LongAdder(); // entries written over another position.
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Creates an empty table using at most a number of megabytes.
+	 *
+	 * @param megabytes
+	 *            The most memory the table may use, at least 1. The table uses
+	 *            the largest power of two of bytes that fits.
+	 */
+	public TranspositionTable(int megabytes) {
+		if (megabytes < 1 || megabytes > 1024)
+			throw new IllegalArgumentException("The table must be 1 to 1024 megabytes");
+		int buckets = Integer.highestOneBit(megabytes) * (1 << 20) / (ENTRY_BYTES * BUCKET_ENTRIES);
+		bucketMask = buckets - 1;
+		int bytes = buckets * ENTRY_BYTES * BUCKET_ENTRIES;
+		// one spare cache line so the buckets can start on a cache line
+		table = ByteBuffer.allocateDirect(bytes + 64).alignedSlice(64);
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Looks up a position.
+	 *
+	 * @param key
+	 *            The key of the position.
+	 * @return the data stored for the position, read with lower, upper and
+	 *         move, or MISS if the table does not have it
+	 */
+	public long probe(long key) {
+		probes.increment();
+		int base = bucket(key);
+		for (int i = 0; i < BUCKET_ENTRIES; i++) {
+			int at = base + i * ENTRY_BYTES;
+			long data = (long) LONGS.getOpaque(table, at + 8);
+			if ((data & VALID) != 0 && ((long) LONGS.getOpaque(table, at) ^ data) == key) {
+				hits.increment();
+				return data;
+			}
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores what a search found out about a position, over any earlier entry
+	 * of the same position.
+	 *
+	 * @param key
+	 *            The key of the position.
+	 * @param lower
+	 *            The fewest tricks the position is sure to give, 0-13
+	 * @param upper
+	 *            The most tricks the position can give, 0-13
+	 * @param move
+	 *            The ordinal of the best card found, or NO_MOVE
+	 * @param depth
+	 *            The number of tricks left in the position, 0-13
+	 */
+	public void store(long key, int lower, int upper, int move, int depth) {
+		int gen = generation;
+		long data = VALID | ((long) gen << GENERATION_SHIFT) | ((long) depth << DEPTH_SHIFT)
+				| ((long) move << MOVE_SHIFT) | ((long) upper << UPPER_SHIFT) | lower;
+		int base = bucket(key);
+		int victim = -1, victimScore = Integer.MAX_VALUE;
+		boolean evict = true; // no empty entry or entry of the same position
+		for (int i = 0; i < BUCKET_ENTRIES; i++) {
+			int at = base + i * ENTRY_BYTES;
+			long old = (long) LONGS.getOpaque(table, at + 8);
+			if ((old & VALID) == 0 || ((long) LONGS.getOpaque(table, at) ^ old) == key) {
+				victim = at;
+				evict = false;
+				break;
+			}
+			int age = (gen - (int) (old >>> GENERATION_SHIFT)) & 0xFF;
+			int score = (int) (old >>> DEPTH_SHIFT & 0xF) - 16 * age;
+			if (score < victimScore) {
+				victimScore = score;
+				victim = at;
+			}
+		}
+		if (evict)
+			replaced.increment();
+		stores.increment();
+		LONGS.setOpaque(table, victim, key ^ data);
+		LONGS.setOpaque(table, victim + 8, data);
+	}
+
+	/**
+	 * Starts a new generation of entries. Entries stored before are still
+	 * found, but are the first to be replaced when a bucket is full.
+	 */
+	public void newSearch() {
+		generation = (generation + 1) & 0xFF;
+	}
+
+	/**
+	 * Empties the table and resets its counters. Should not be called while
+	 * another thread uses the table.
+	 */
+	public void clear() {
+		for (int at = 0; at < table.capacity(); at += 8)
+			LONGS.set(table, at, 0L);
+		probes.reset();
+		hits.reset();
+		stores.reset();
+		replaced.reset();
+	}
+
+	/**
+	 * Returns the fewest tricks stored for a position.
+	 *
+	 * @param data
+	 *            The data of a probe that did not miss.
+	 * @return the lower bound, 0-13
+	 */
+	public static int lower(long data) {
+		return (int) data & 0xF;
+	}
+
+	/**
+	 * Returns the most tricks stored for a position.
+	 *
+	 * @param data
+	 *            The data of a probe that did not miss.
+	 * @return the upper bound, 0-13
+	 */
+	public static int upper(long data) {
+		return (int) (data >>> UPPER_SHIFT) & 0xF;
+	}
+
+	/**
+	 * Returns the best card stored for a position.
+	 *
+	 * @param data
+	 *            The data of a probe that did not miss.
+	 * @return the ordinal of the card, or NO_MOVE
+	 */
+	public static int move(long data) {
+		return (int) (data >>> MOVE_SHIFT) & 0x3F;
+	}
+
+	/**
+	 * Returns the number of entries the table can hold.
+	 *
+	 * @return the number of entries
+	 */
+	public int getCapacity() {
+		return (bucketMask + 1) * BUCKET_ENTRIES;
+	}
+
+	/**
+	 * Returns the number of probes made since the table was made or cleared.
+	 *
+	 * @return the number of probes
+	 */
+	public long getProbes() {
+		return probes.sum();
+	}
+
+	/**
+	 * Returns the number of probes that found their position.
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of entries written.
+	 *
+	 * @return the number of stores
+	 */
+	public long getStores() {
+		return stores.sum();
+	}
+
+	/**
+	 * Returns the number of entries written over another position.
+	 *
+	 * @return the number of replacements
+	 */
+	public long getReplaced() {
+		return replaced.sum();
+	}
+
+	/**
+	 * Returns the share of probes that found their position.
+	 *
+	 * @return the hit rate, 0 if nothing was probed
+	 */
+	public double getHitRate() {
+		long p = probes.sum();
+		return p == 0 ? 0 : hits.sum() / (double) p;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Returns the byte offset of the bucket of a key, with the high half of
+	 * the key folded into the low half so every bit of the key counts.
+	 */
+	private int bucket(long key) {
+		return (int) ((key ^ key >>> 32) & bucketMask) * (ENTRY_BYTES * BUCKET_ENTRIES);
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * TrickResolver finds the winner of a round from the ordinals of the four
+ * cards played, without creating or comparing Card objects. The strength of
+ * every card against every suit that can be led is worked out once into a
+ * table, so finding the winner is four table lookups and three comparisons.
+ *
+ * A spade beats every other suit, a card of the suit led beats every card that
+ * is neither spade nor the suit led, and within a suit the ace is highest.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class TrickResolver {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The strength of each card, indexed by the suit index of the card led *
+	 * 52 + the ordinal of the card. Cards that can not win are 0, cards of the
+	 * suit led are 1-13 and spades are 14-26, two lowest and ace highest.
+	 */
+	private static final byte[] RANK = new byte[4 * 52];
+
+	static {
+		int spades = Card.suitIndex(Suit.SPADE);
+		for (int led = 0; led < 4; led++) {
+			for (int o = 0; o < 52; o++) {
+				int suit = o / CardSet.SUIT_SIZE;
+				int power = o % CardSet.SUIT_SIZE + 1;
+				if (suit == spades)
+					RANK[led * 52 + o] = (byte) (CardSet.SUIT_SIZE + power);
+				else if (suit == led)
+					RANK[led * 52 + o] = (byte) power;
+			}
+		}
+	}
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Only static methods, no TrickResolver objects are made.
+	 */
+	private TrickResolver() {
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the seat that won a round. The cards are given in the order they
+	 * were played, starting with the seat that led.
+	 *
+	 * @param c0
+	 *            The ordinal of the card led.
+	 * @param c1
+	 *            The ordinal of the second card played.
+	 * @param c2
+	 *            The ordinal of the third card played.
+	 * @param c3
+	 *            The ordinal of the fourth card played.
+	 * @param leader
+	 *            The seat that led the round, 0-3
+	 * @return the seat that won the round, 0-3
+	 */
+	public static int winner(int c0, int c1, int c2, int c3, int leader) {
+		return (leader + winningPosition(c0, c1, c2, c3)) & 3;
+	}
+
+	/**
+	 * Returns which of the four cards of a round won, in the order they were
+	 * played.
+	 *
+	 * @param c0
+	 *            The ordinal of the card led.
+	 * @param c1
+	 *            The ordinal of the second card played.
+	 * @param c2
+	 *            The ordinal of the third card played.
+	 * @param c3
+	 *            The ordinal of the fourth card played.
+	 * @return 0 if the card led won, up to 3 if the last card won
+	 */
+	public static int winningPosition(int c0, int c1, int c2, int c3) {
+		int row = (c0 / CardSet.SUIT_SIZE) * 52;
+		int best = 0;
+		int bestRank = RANK[row + c0];
+		int r = RANK[row + c1];
+		if (r > bestRank) {
+			best = 1;
+			bestRank = r;
+		}
+		r = RANK[row + c2];
+		if (r > bestRank) {
+			best = 2;
+			bestRank = r;
+		}
+		if (RANK[row + c3] > bestRank)
+			best = 3;
+		return best;
+	}
+
+	/**
+	 * Returns the strength of a card in a round where a suit was led, higher
+	 * beats lower.
+	 *
+	 * @param led
+	 *            The suit index of the card led, see Card.suitIndex
+	 * @param ordinal
+	 *            The ordinal of the card.
+	 * @return 0 if the card can not win, 1-13 for the suit led, 14-26 for
+	 *         spades
+	 */
+	static int rank(int led, int ordinal) {
+		return RANK[led * 52 + ordinal];
+	}
+}
@@ -8,9 +8,9 @@ import java.io.IOException;
 /**
  * This class defines the Welcome GUI that is displayed when the program is
  * first launched. It allows the user to select the number of Humans or Bots and
- * enter names for the Human players, as well as choose high or low screen
- * resolution. There is also a button they can click to display the rules of
- * spades as adapted for our version of the game.
+ * enter names for the Human players, as well as choose how the Bots play and
+ * high or low screen resolution. There is also a button they can click to
+ * display the rules of spades as adapted for our version of the game.
  * 
  * @author Bob Laskowski
  * @author Peter Klein
@@ -48,13 +48,20 @@ public class WelcomeGUI extends JFrame {
 	 */
 	private JRadioButton screenRes1, screenRes2;
 
+	/**
+	 * Declare the combo box to select the kind of bot and the text field for
+	 * the milliseconds a searching bot may take for a card
+	 */
+	private JComboBox<String> botKind;
+	private JTextField botMillis;
+
 	/**
 	 * Holds the names of the players entered in the JTextFields. Holds the
-	 * actual text of the name if they are human, holds "Bot" if bot. Static so
-	 * that it can be accessed without declaring a new WelcomeGUI object from
-	 * driver so that driver knows whether to make human or bot players
+	 * actual text of the name if they are human, holds the selected kind of
+	 * bot if bot (see GameContext.searchBot). Passed to the game in its
+	 * GameContext so that driver knows whether to make human or bot players
 	 */
-	private static String[] players;
+	private String[] players;
 
 	/**
 	 * The font to be used for the window
@@ -123,6 +130,9 @@ public class WelcomeGUI extends JFrame {
 		// Initialize all items for screen resolution row
 		initializeScreenResolution();
 
+		// Initialize all items for the kind of bot row
+		initializeBots();
+
 		// Play and How to Play buttons
 		initializeButtons();
 
@@ -161,7 +171,7 @@ public class WelcomeGUI extends JFrame {
 		wholePage.add(panel2, c2);
 		panel3.setLayout(new GridBagLayout());
 		c1.gridx = 1;
-		c1.gridy = 5;
+		c1.gridy = 6;
 		panel2.add(panel3, c1);
 
 		players = new String[4];
@@ -344,6 +354,37 @@ public class WelcomeGUI extends JFrame {
 		group.add(screenRes2);
 	}
 
+	/**
+	 * Initialize all components used for the kind of bot row. Declared in
+	 * separate method to increase readability and make changes easier.
+	 * 
+	 */
+	private void initializeBots() {
+		JLabel bots = new JLabel("Bots:");
+		bots.setFont(font);
+		botKind = new JComboBox<>(new String[] { GameContext.BOT, GameContext.MONTE_CARLO_BOT,
+				GameContext.ISMCTS_BOT });
+		botKind.setFont(font);
+		botKind.addActionListener(new BotKind());
+		botMillis = new JTextField("300", 10);
+		botMillis.setHorizontalAlignment(JTextField.CENTER);
+		botMillis.setFont(font);
+		botMillis.setToolTipText("Milliseconds per card");
+		botMillis.setEditable(false);
+		c1.gridx = 0;
+		c1.gridy = 5;
+		c1.insets = i;
+		panel2.add(bots, c1);
+		c1.gridx = 1;
+		c1.gridy = 5;
+		c1.insets = i;
+		panel2.add(botKind, c1);
+		c1.gridx = 2;
+		c1.gridy = 5;
+		c1.insets = i;
+		panel2.add(botMillis, c1);
+	}
+
 	/**
 	 * Initialize all components used for the buttons row. Declared in separate
 	 * method to increase readability and make changes easier.
@@ -390,10 +431,40 @@ public class WelcomeGUI extends JFrame {
 
 	}
 
+	/**
+	 * Returns the seat of every bot, "Bot" or a searching bot that takes the
+	 * entered milliseconds per card on every core.
+	 * 
+	 * @return the seat of the selected kind of bot
+	 */
+	private String getBotSeat() {
+		String kind = (String) botKind.getSelectedItem();
+		if (kind.equals(GameContext.BOT))
+			return kind;
+		long millis;
+		try {
+			millis = Math.max(1, Long.parseLong(botMillis.getText().trim()));
+		} catch (NumberFormatException e) {
+			millis = 300;
+		}
+		return GameContext.searchBot(kind, millis, 0);
+	}
+
 	/*
 	 * ACTION LISTENERS
 	 */
 
+	/**
+	 * This class defines the action performed when a kind of bot is selected.
+	 * Only searching bots take a time per card
+	 *
+	 */
+	private class BotKind implements ActionListener {
+		public void actionPerformed(ActionEvent e) {
+			botMillis.setEditable(!GameContext.BOT.equals(botKind.getSelectedItem()));
+		}
+	}
+
 	/**
 	 * This class defines the action performed when the human/bot button is
 	 * clicked for player 1
@@ -490,31 +561,32 @@ public class WelcomeGUI extends JFrame {
 	 * This class defines the action performed when the play button is clicked.
 	 * Displays the main game GUI. Disposes of the Welcome GUI window. Adds the
 	 * player selections to the players array, depending on whether bot or human
-	 * is selected. Adds "Bot" if bot, otherwise adds the name entered in the
-	 * JTextField for human
+	 * is selected. Adds the selected kind of bot if bot, otherwise adds the
+	 * name entered in the JTextField for human
 	 *
 	 */
 	private class Play implements ActionListener {
 		public void actionPerformed(ActionEvent e) {
-			if (p1button.getText().equals("Bot"))
-				players[0] = "Bot";
+			String bot = getBotSeat();
+			if (p1button.getText().trim().equals(GameContext.BOT))
+				players[0] = bot;
 			else
 				players[0] = p1text.getText();
-			if (p2button.getText().equals("Bot"))
-				players[1] = "Bot";
+			if (p2button.getText().trim().equals(GameContext.BOT))
+				players[1] = bot;
 			else
 				players[1] = p2text.getText();
-			if (p3button.getText().equals("Bot"))
-				players[2] = "Bot";
+			if (p3button.getText().trim().equals(GameContext.BOT))
+				players[2] = bot;
 			else
 				players[2] = p3text.getText();
-			if (p4button.getText().equals("Bot"))
-				players[3] = "Bot";
+			if (p4button.getText().trim().equals(GameContext.BOT))
+				players[3] = bot;
 			else
 				players[3] = p4text.getText();
 
 			dispose();
-			GUI gui = new GUI(getScreenRes());
+			GUI gui = new GUI(getScreenRes(), new GameContext(players));
 			gui.display();
 		}
 	}
@@ -537,12 +609,11 @@ public class WelcomeGUI extends JFrame {
 
 	/**
 	 * Returns the player array that is initialized when "Play" is clicked.
-	 * Static so that driver can access it without declaring a new WelcomeGUI
-	 * object.
 	 * 
-	 * @return The array holds the player names if human, holds "Bot" if bot
+	 * @return The array holds the player names if human, holds the kind of bot
+	 *         if bot
 	 */
-	public static String[] getPlayers() {
+	public String[] getPlayers() {
 		return players;
 	}
 
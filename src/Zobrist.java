@@ -0,0 +1,168 @@
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist gives every part of a position in the play of a hand a fixed random
+ * 64 bit number: each card in each seat's hand, each card in each place of
+ * the round in progress, the seat to play and whether spades are broken. The
+ * key of a position is all of its numbers XORed together, so playing a card
+ * updates the key with two XORs (the card leaves a hand and joins the round)
+ * instead of hashing the whole position again.
+ *
+ * The numbers come from a fixed seed, so every run and every thread makes the
+ * same key for the same position and a table of positions can be shared.
+ *
+ * @author Bob Laskowski
+ * @author Peter Klein
+ * @version 1.3
+ */
+public class Zobrist {
+
+	/*
+	 * CONSTANTS
+	 */
+
+	/**
+	 * The number of each card in each seat's hand, by seat and ordinal.
+	 */
+	private static final long[][] HAND = new long[4][52];
+
+	/**
+	 * The number of each card in each place of the round in progress, by
+	 * place and ordinal.
+	 */
+	private static final long[][] TRICK = new long[4][52];
+
+	/**
+	 * The number of each seat to play.
+	 */
+	private static final long[] TURN = new long[4];
+
+	/**
+	 * The number XORed in once spades are broken.
+	 */
+	static final long SPADES_BROKEN;
+
+	static {
+		SplittableRandom random = new SplittableRandom(0x5BADE5L);
+		for (int seat = 0; seat < 4; seat++) {
+			for (int o = 0; o < 52; o++) {
+				HAND[seat][o] = random.nextLong();
+				TRICK[seat][o] = random.nextLong();
+			}
+			TURN[seat] = random.nextLong();
+		}
+		SPADES_BROKEN = random.nextLong();
+	}
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Only static methods, no Zobrist objects are made.
+	 */
+	private Zobrist() {
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the number of a card in a seat's hand.
+	 *
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @param ordinal
+	 *            The ordinal of the card.
+	 * @return the number to XOR into a key when the card enters or leaves the
+	 *         hand
+	 */
+	public static long card(int seat, int ordinal) {
+		return HAND[seat][ordinal];
+	}
+
+	/**
+	 * Returns the number of a card played in a place of the round in progress.
+	 *
+	 * @param place
+	 *            0 for the card led, up to 3 for the last card of the round
+	 * @param ordinal
+	 *            The ordinal of the card.
+	 * @return the number to XOR into a key when the card is played or taken
+	 *         back
+	 */
+	public static long trick(int place, int ordinal) {
+		return TRICK[place][ordinal];
+	}
+
+	/**
+	 * Returns the number of the seat to play.
+	 *
+	 * @param seat
+	 *            The seat, 0 South, 1 West, 2 North, 3 East
+	 * @return the number to XOR into a key when the turn passes to or from the
+	 *         seat
+	 */
+	public static long turn(int seat) {
+		return TURN[seat];
+	}
+
+	/**
+	 * Makes the key of a position from scratch.
+	 *
+	 * @param hands
+	 *            The masks of the cards left in each seat's hand, by seat
+	 * @param pile
+	 *            The ordinals of the cards played in the round in progress, in
+	 *            the order they were played
+	 * @param pileSize
+	 *            The number of cards in the pile, 0-3
+	 * @param turn
+	 *            The seat to play.
+	 * @param spadesBroken
+	 *            true if a spade has been played this hand
+	 * @return the key of the position
+	 */
+	public static long hash(long[] hands, int[] pile, int pileSize, int turn, boolean spadesBroken) {
+		long key = TURN[turn] ^ (spadesBroken ? SPADES_BROKEN : 0L);
+		for (int seat = 0; seat < 4; seat++) {
+			for (long m = hands[seat]; m != 0; m &= m - 1)
+				key ^= HAND[seat][Long.numberOfTrailingZeros(m)];
+		}
+		for (int i = 0; i < pileSize; i++)
+			key ^= TRICK[i][pile[i]];
+		return key;
+	}
+
+	/**
+	 * Makes the key of a position at the start of a round with the cards
+	 * ranked only against each other. Each suit's cards left are moved up to
+	 * the top of the suit in the same order, so the highest card left becomes
+	 * the ace, the next the king and so on. Two positions that only differ in
+	 * cards already played, and so play out the same way, get the same key.
+	 *
+	 * @param hands
+	 *            The masks of the cards left in each seat's hand, by seat
+	 * @param leader
+	 *            The seat to lead.
+	 * @param spadesBroken
+	 *            true if a spade has been played this hand
+	 * @return the key of the position
+	 */
+	public static long hashRelative(long[] hands, int leader, boolean spadesBroken) {
+		long all = hands[0] | hands[1] | hands[2] | hands[3];
+		long key = TURN[leader] ^ (spadesBroken ? SPADES_BROKEN : 0L);
+		for (int suit = 0; suit < 4; suit++) {
+			int top = suit * CardSet.SUIT_SIZE + CardSet.SUIT_SIZE - 1;
+			long live = all & (CardSet.SUIT_BITS << (suit * CardSet.SUIT_SIZE));
+			for (int o = top; live != 0; o--) {
+				long bit = Long.highestOneBit(live);
+				live &= ~bit;
+				int seat = (hands[0] & bit) != 0 ? 0 : (hands[1] & bit) != 0 ? 1 : (hands[2] & bit) != 0 ? 2 : 3;
+				key ^= HAND[seat][o];
+			}
+		}
+		return key;
+	}
+}